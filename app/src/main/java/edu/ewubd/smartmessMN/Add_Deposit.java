@@ -0,0 +1,136 @@
+package edu.ewubd.smartmessMN;
+
+import android.app.DatePickerDialog;
+import android.content.Context;
+import android.os.Bundle;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.Spinner;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Manager records money a member handed over. Saved through the outbox, so it works
+// with bad reception; see Deposits for what gets written.
+public class Add_Deposit extends AppCompatActivity {
+
+    // Views
+    private EditText etDate, etAmount, etNote;
+    private Spinner spMember;
+    private Button btnSave, btnCancel;
+
+    // Data
+    private String currentMessCode;
+    private DatabaseReference mDatabase;
+    private LocalDate selectedDate;
+    private final List<RosterCache.Member> members = new ArrayList<>();
+    private ArrayAdapter<String> memberAdapter;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_add_deposit);
+
+        mDatabase = FirebaseDatabase.getInstance().getReference();
+        currentMessCode = Session.messCode(this);
+
+        // Only managers take deposits
+        if (!"Manager".equalsIgnoreCase(Session.role(this)) || currentMessCode == null) {
+            Toast.makeText(this, "Only the manager can add deposits", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        etDate = findViewById(R.id.et_deposit_date);
+        etAmount = findViewById(R.id.et_deposit_amount);
+        etNote = findViewById(R.id.et_deposit_note);
+        spMember = findViewById(R.id.sp_deposit_member);
+        btnSave = findViewById(R.id.btn_deposit_save);
+        btnCancel = findViewById(R.id.btn_deposit_cancel);
+
+        memberAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_dropdown_item, new ArrayList<>());
+        spMember.setAdapter(memberAdapter);
+
+        selectedDate = LocalDate.now();
+        setupDatePicker();
+        loadMembers();
+
+        btnSave.setOnClickListener(v -> handleSave());
+        btnCancel.setOnClickListener(v -> finish());
+    }
+
+    private void setupDatePicker() {
+        etDate.setText(DateKeys.display(DateKeys.key(selectedDate)));
+        etDate.setOnClickListener(v -> new DatePickerDialog(this, (view, year, month, dayOfMonth) -> {
+            selectedDate = LocalDate.of(year, month + 1, dayOfMonth);
+            etDate.setText(DateKeys.display(DateKeys.key(selectedDate)));
+        }, selectedDate.getYear(), selectedDate.getMonthValue() - 1, selectedDate.getDayOfMonth()).show());
+    }
+
+    private void loadMembers() {
+        RosterCache.get(mDatabase, currentMessCode, new RosterCache.Callback() {
+            @Override
+            public void onRoster(List<RosterCache.Member> roster) {
+                members.clear();
+                members.addAll(roster);
+                memberAdapter.clear();
+                for (RosterCache.Member member : roster) memberAdapter.add(member.name);
+                memberAdapter.notifyDataSetChanged();
+            }
+            @Override
+            public void onError(String message) {
+                Toast.makeText(Add_Deposit.this, "Failed to load member list", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // --- SAVE LOGIC ---
+
+    private void handleSave() {
+        int position = spMember.getSelectedItemPosition();
+        if (position < 0 || position >= members.size()) {
+            Toast.makeText(this, "Pick a member", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        double amount;
+        try {
+            amount = Double.parseDouble(etAmount.getText().toString().trim());
+        } catch (NumberFormatException e) {
+            etAmount.setError("Enter amount");
+            return;
+        }
+        if (amount == 0 || Double.isNaN(amount) || Double.isInfinite(amount)) {
+            etAmount.setError("Enter amount");
+            return;
+        }
+
+        RosterCache.Member member = members.get(position);
+        String depositId = mDatabase.child("mess").child(currentMessCode).child(Deposits.NODE).push().getKey();
+        if (depositId == null) return;
+
+        Map<String, Object> updates = new HashMap<>();
+        Deposits.putDeposit(updates, depositId, member.uid, member.name, amount, DateKeys.key(selectedDate),
+                etNote.getText().toString().trim(), FirebaseAuth.getInstance().getCurrentUser().getUid());
+
+        String label = "TK. " + Math.round(amount) + " from " + member.name;
+        Context app = getApplicationContext();
+        OutboxSync.writeMess(currentMessCode, updates, ok -> {
+            if (!ok) Toast.makeText(app, "Deposit " + label + " could not be synced", Toast.LENGTH_LONG).show();
+        });
+        Toast.makeText(this, OutboxSync.get().isConnected() ? "Deposit saved: " + label : "Deposit saved, will sync when online",
+                Toast.LENGTH_SHORT).show();
+        finish();
+    }
+}
@@ -1,34 +1,36 @@
 package edu.ewubd.smartmessMN;
 
 import android.app.DatePickerDialog;
+import android.content.Context;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.RadioGroup;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.ServerValue;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 
 public class Add_Expenses extends AppCompatActivity {
 
     // Views
-    private EditText etDate, etItemName, etItemUser, etItemAmount;
+    private EditText etDate, etItemName, etItemAmount;
+    private AutoCompleteTextView etItemUser;
     private RadioGroup rgCategory;
     private LinearLayout containerUserSelection;
     private Button btnSave, btnCancel;
@@ -37,10 +39,13 @@ public class Add_Expenses extends AppCompatActivity {
     private String currentMessCode, currentUserRole;
     private DatabaseReference mDatabase;
     private FirebaseAuth mAuth;
-    private Calendar calendar;
+    private LocalDate selectedDate;
 
-    // Lookup Map for Managers: Name -> UID
-    private Map<String, String> memberNameMap = new HashMap<>();
+    // Member autocomplete for managers: index over the roster, ranked by recent payers
+    private final MemberSuggestionAdapter memberAdapter = new MemberSuggestionAdapter();
+    private List<RosterCache.Member> roster = new ArrayList<>();
+    private List<String> recentPayers = new ArrayList<>();
+    private MemberIndex.Match selectedMember; // Picked from the dropdown; cleared on edit
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,8 +57,8 @@ public class Add_Expenses extends AppCompatActivity {
         mDatabase = FirebaseDatabase.getInstance().getReference();
 
         // 2. Get Data from Intent
-        currentMessCode = getIntent().getStringExtra("messCode");
-        currentUserRole = getIntent().getStringExtra("role");
+        currentMessCode = Session.messCode(this);
+        currentUserRole = Session.role(this);
 
         // 3. Bind Views
         etDate = findViewById(R.id.etSelectDate);
@@ -67,7 +72,7 @@ public class Add_Expenses extends AppCompatActivity {
         btnSave = findViewById(R.id.btn_save);
         btnCancel = findViewById(R.id.btn_cancel);
 
-        calendar = Calendar.getInstance();
+        selectedDate = LocalDate.now();
 
         // 4. Setup
         setupDatePicker();
@@ -83,26 +88,24 @@ public class Add_Expenses extends AppCompatActivity {
     private void setupDatePicker() {
         updateDateLabel(); // Set today's date initially
         etDate.setOnClickListener(v -> {
+            // DatePickerDialog months are 0-based, LocalDate months are 1-based
             new DatePickerDialog(Add_Expenses.this, (view, year, month, dayOfMonth) -> {
-                calendar.set(Calendar.YEAR, year);
-                calendar.set(Calendar.MONTH, month);
-                calendar.set(Calendar.DAY_OF_MONTH, dayOfMonth);
+                selectedDate = LocalDate.of(year, month + 1, dayOfMonth);
                 updateDateLabel();
-            }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
+            }, selectedDate.getYear(), selectedDate.getMonthValue() - 1, selectedDate.getDayOfMonth()).show();
         });
     }
 
     private void updateDateLabel() {
-        String myFormat = "MM/dd/yyyy";
-        SimpleDateFormat sdf = new SimpleDateFormat(myFormat, Locale.US);
-        etDate.setText(sdf.format(calendar.getTime()));
+        etDate.setText(DateKeys.display(DateKeys.key(selectedDate)));
     }
 
     private void setupRoleLogic() {
         if ("Manager".equalsIgnoreCase(currentUserRole)) {
             // SHOW User Input Field
             containerUserSelection.setVisibility(View.VISIBLE);
-            // Fetch all members to map Names to UIDs for verification
+            // Fetch all members (and who paid lately) for the autocomplete
+            setupMemberField();
             preloadMemberData();
         } else {
             // HIDE User Input Field
@@ -110,29 +113,71 @@ public class Add_Expenses extends AppCompatActivity {
         }
     }
 
+    private void setupMemberField() {
+        etItemUser.setAdapter(memberAdapter);
+        etItemUser.setOnItemClickListener((parent, view, position, id) -> {
+            selectedMember = memberAdapter.getItem(position);
+            etItemUser.setError(null);
+        });
+        etItemUser.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+            @Override
+            public void afterTextChanged(Editable s) {
+                // Typing after a pick means the pick no longer stands
+                if (selectedMember != null && !selectedMember.name.contentEquals(s)) selectedMember = null;
+            }
+        });
+        // Show recent payers as soon as the (empty) field is tapped
+        etItemUser.setOnFocusChangeListener((v, hasFocus) -> {
+            if (hasFocus && etItemUser.getText().length() == 0) {
+                memberAdapter.getFilter().filter("", count -> {
+                    if (count > 0 && etItemUser.hasFocus()) etItemUser.showDropDown();
+                });
+            }
+        });
+    }
+
     // --- DATA PRELOADING (For Managers) ---
     private void preloadMemberData() {
-        //
-        // Strategy: Search "users" node where "messCode" matches the current one
-        mDatabase.child("users").orderByChild("messCode").equalTo(currentMessCode)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        memberNameMap.clear();
-                        for (DataSnapshot userSnap : snapshot.getChildren()) {
-                            String name = userSnap.child("name").getValue(String.class);
-                            String uid = userSnap.getKey();
-                            if (name != null && uid != null) {
-                                // Store lowercase name for easy case-insensitive matching
-                                memberNameMap.put(name.toLowerCase().trim(), uid);
-                            }
-                        }
-                    }
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Toast.makeText(Add_Expenses.this, "Failed to load member list", Toast.LENGTH_SHORT).show();
-                    }
-                });
+        // Recent payers rank suggestions; the feed is newest first and usually already loaded
+        MessDataStore.get(currentMessCode).expenses().observe(this, expenses -> {
+            List<String> payers = new ArrayList<>();
+            for (ExpenseItem expense : expenses) {
+                if (expense.uid != null) payers.add(expense.uid);
+            }
+            if (!payers.equals(recentPayers)) {
+                recentPayers = payers;
+                rebuildMemberIndex();
+            }
+        });
+
+        // Served from the shared roster cache (usually already warm from Meal_History)
+        RosterCache.get(mDatabase, currentMessCode, new RosterCache.Callback() {
+            @Override
+            public void onRoster(List<RosterCache.Member> members) {
+                roster = new ArrayList<>(members);
+                rebuildMemberIndex();
+            }
+            @Override
+            public void onError(String message) {
+                Toast.makeText(Add_Expenses.this, "Failed to load member list", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // Built once per roster/payer change, not per keystroke
+    private void rebuildMemberIndex() {
+        memberAdapter.setIndex(new MemberIndex(roster, recentPayers));
+    }
+
+    // Dropdown pick first, then an exact (unambiguous) name
+    private MemberIndex.Match resolveMember(String enteredName) {
+        if (selectedMember != null && selectedMember.name.equals(enteredName)) return selectedMember;
+        MemberIndex index = memberAdapter.index();
+        return index == null ? null : index.exact(enteredName);
     }
 
     // --- SAVE LOGIC ---
@@ -141,7 +186,8 @@ public class Add_Expenses extends AppCompatActivity {
         if (currentMessCode == null) return;
 
         // 1. Basic Validation
-        String date = etDate.getText().toString();
+        // Stored as an ISO key (yyyy-MM-dd) so expenses sort and range-query by date
+        String date = DateKeys.key(selectedDate);
         String itemName = etItemName.getText().toString().trim();
         String amountStr = etItemAmount.getText().toString().trim();
 
@@ -166,15 +212,19 @@ public class Add_Expenses extends AppCompatActivity {
                 return;
             }
 
-            // Lookup UID from the map we preloaded
-            String targetUid = memberNameMap.get(enteredName.toLowerCase());
-
-            if (targetUid != null) {
-                // Success: Found the member!
-                saveToFirebase(date, itemName, amount, category, targetUid, enteredName); // Use entered name for display
+            MemberIndex.Match member = resolveMember(enteredName);
+            if (member != null) {
+                // Success: Found the member! Saved under the roster spelling
+                saveToFirebase(date, itemName, amount, category, member.uid, member.name);
             } else {
-                // Failure: Name not found in this mess
-                etItemUser.setError("Member not found! Check spelling.");
+                // Failure: unknown (or shared) name; point at the closest one
+                MemberIndex index = memberAdapter.index();
+                List<MemberIndex.Match> close = index == null ? new ArrayList<>() : index.search(enteredName, 1);
+                if (!close.isEmpty()) {
+                    etItemUser.setError("Did you mean " + close.get(0).name + "? Pick a name from the list.");
+                } else {
+                    etItemUser.setError("Member not found! Check spelling.");
+                }
                 Toast.makeText(this, "Member not found in this mess", Toast.LENGTH_SHORT).show();
             }
 
@@ -189,7 +239,8 @@ public class Add_Expenses extends AppCompatActivity {
     }
 
     private void saveToFirebase(String date, String item, double amount, String type, String uid, String userName) {
-        String expenseId = mDatabase.child("mess").child(currentMessCode).child("expenses").push().getKey();
+        DatabaseReference messRef = mDatabase.child("mess").child(currentMessCode);
+        String expenseId = messRef.child("expenses").push().getKey();
 
         Map<String, Object> expenseData = new HashMap<>();
         expenseData.put("id", expenseId);
@@ -201,12 +252,24 @@ public class Add_Expenses extends AppCompatActivity {
         expenseData.put("user", userName); // The Display Name (for the list view)
 
         if (expenseId != null) {
-            mDatabase.child("mess").child(currentMessCode).child("expenses").child(expenseId).setValue(expenseData)
-                    .addOnSuccessListener(v -> {
-                        Toast.makeText(this, "Expense Saved!", Toast.LENGTH_SHORT).show();
-                        finish();
-                    })
-                    .addOnFailureListener(e -> Toast.makeText(this, "Failed to save", Toast.LENGTH_SHORT).show());
+            // Expense + month counters in one write, so settlement never has to scan expenses
+            // Path: mess/{code}/expenseTotals/{yyyy-MM}/{type} and .../paidBy/{uid}
+            // (paidBy only records who did the buying; the money is the pool's, see SettlementEngine)
+            String monthKey = DateKeys.month(date);
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("expenses/" + expenseId, expenseData);
+            updates.put("expenseTotals/" + monthKey + "/" + type, ServerValue.increment(amount));
+            updates.put("expenseTotals/" + monthKey + "/paidBy/" + uid, ServerValue.increment(amount));
+            Ledger.putSpend(updates, monthKey, "Grocery".equalsIgnoreCase(type) ? "Grocery" : "Other", amount);
+
+            // Queued in the outbox (kept across bad reception and restarts), so the screen can close now
+            Context app = getApplicationContext();
+            OutboxSync.writeMess(currentMessCode, updates, ok -> {
+                if (!ok) Toast.makeText(app, "Expense \"" + item + "\" could not be synced", Toast.LENGTH_LONG).show();
+            });
+            Toast.makeText(this, OutboxSync.get().isConnected() ? "Expense Saved!" : "Expense saved, will sync when online",
+                    Toast.LENGTH_SHORT).show();
+            finish();
         }
     }
 }
\ No newline at end of file
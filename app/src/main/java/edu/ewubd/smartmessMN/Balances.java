@@ -0,0 +1,60 @@
+package edu.ewubd.smartmessMN;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Each member's running balance, carried from one month into the next.
+// Path: mess/{code}/closingBalances/{yyyy-MM}/{uid}   balance carried out of that month
+// Balance now = what was carried out of last month + this month's balance from the month
+// counters (SettlementEngine), so it takes two small reads however long the history is.
+// A month is closed when a manager opens its settlement after the month has ended.
+// Opening it again re-closes it with any late edits; a later month that was already
+// closed keeps the old carry until its settlement is opened again too.
+public class Balances {
+
+    public static final String NODE = "closingBalances";
+
+    // Money under half a paisa is rounding noise, not a change worth writing
+    private static final double EPSILON = 0.005;
+
+    private Balances() {}
+
+    // Carried in + the month's balance for everyone who shared the month (uids[i] goes
+    // with monthBalance[i]); anyone else with a carried balance keeps it as it was
+    public static Map<String, Double> close(Map<String, Double> carried, List<String> uids, double[] monthBalance) {
+        Map<String, Double> closing = new HashMap<>(carried);
+        for (int i = 0; i < uids.size(); i++) {
+            closing.put(uids.get(i), carriedOf(carried, uids.get(i)) + monthBalance[i]);
+        }
+        return closing;
+    }
+
+    public static double carriedOf(Map<String, Double> carried, String uid) {
+        Double value = carried.get(uid);
+        return value == null ? 0 : value;
+    }
+
+    public static boolean same(Map<String, Double> a, Map<String, Double> b) {
+        if (!a.keySet().equals(b.keySet())) return false;
+        for (Map.Entry<String, Double> e : a.entrySet()) {
+            if (Math.abs(e.getValue() - b.get(e.getKey())) >= EPSILON) return false;
+        }
+        return true;
+    }
+
+    public static void putClosing(Map<String, Object> updates, String monthKey, Map<String, Double> closing) {
+        updates.put(NODE + "/" + monthKey, new HashMap<String, Object>(closing));
+    }
+
+    public static Map<String, Double> parse(DataSnapshot month) {
+        Map<String, Double> balances = new HashMap<>();
+        for (DataSnapshot child : month.getChildren()) {
+            Object val = child.getValue();
+            if (val instanceof Number) balances.put(child.getKey(), ((Number) val).doubleValue());
+        }
+        return balances;
+    }
+}
@@ -0,0 +1,101 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Fixed monthly bills, one node per month so last month's numbers are kept.
+// Path: mess/{code}/monthBills/{yyyy-MM}/{bill}
+// A month nobody has saved yet uses the latest earlier month (or the old flat
+// mess/{code}/bills node) as its values, until the manager saves it.
+public class Bills {
+
+    private static final String TAG = "Bills";
+
+    public static final String NODE = "monthBills";
+    public static final String LEGACY_NODE = "bills";
+    public static final String[] KEYS = {"Home Rent", "Electric Bill", "Gas Bill", "Water Bill", "Utility", "Internet"};
+
+    public interface Callback {
+        // fromMonth: the month the values belong to, LEGACY_NODE for the old flat node,
+        // null if there was nothing to carry
+        void onBills(Map<String, Double> amounts, String fromMonth);
+    }
+
+    // The month's own values, or the carried-forward ones if it has none
+    public static void load(DatabaseReference messRef, String monthKey, Callback callback) {
+        messRef.child(NODE).child(monthKey).addListenerForSingleValueEvent(new Reader(callback) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (snapshot.exists()) callback.onBills(parse(snapshot), monthKey);
+                else carryForward(messRef, monthKey, callback);
+            }
+        });
+    }
+
+    // Latest month before monthKey that has bills; the flat legacy node if none does
+    public static void carryForward(DatabaseReference messRef, String monthKey, Callback callback) {
+        messRef.child(NODE).orderByKey().endBefore(monthKey).limitToLast(1)
+                .addListenerForSingleValueEvent(new Reader(callback) {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        for (DataSnapshot month : snapshot.getChildren()) {
+                            callback.onBills(parse(month), month.getKey());
+                            return;
+                        }
+                        messRef.child(LEGACY_NODE).addListenerForSingleValueEvent(new Reader(callback) {
+                            @Override
+                            public void onDataChange(@NonNull DataSnapshot legacy) {
+                                callback.onBills(parse(legacy), legacy.exists() ? LEGACY_NODE : null);
+                            }
+                        });
+                    }
+                });
+    }
+
+    public static Map<String, Double> parse(DataSnapshot snapshot) {
+        Map<String, Double> amounts = new LinkedHashMap<>();
+        for (String key : KEYS) {
+            Object val = snapshot.child(key).getValue();
+            amounts.put(key, val instanceof Number ? ((Number) val).doubleValue() : 0);
+        }
+        return amounts;
+    }
+
+    public static double total(Map<String, Double> amounts) {
+        double total = 0;
+        for (Double amount : amounts.values()) total += amount;
+        return total;
+    }
+
+    // Changed bills of one month plus the ledger difference, for one multi-path update
+    public static void putChanges(Map<String, Object> updates, String monthKey,
+                                  Map<String, Double> oldAmounts, Map<String, Double> newAmounts) {
+        for (Map.Entry<String, Double> e : newAmounts.entrySet()) {
+            updates.put(NODE + "/" + monthKey + "/" + e.getKey(), e.getValue());
+        }
+        Ledger.putBillChange(updates, monthKey, total(oldAmounts), total(newAmounts));
+    }
+
+    private abstract static class Reader implements ValueEventListener {
+        private final Callback callback;
+
+        Reader(Callback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.w(TAG, "Bills read failed: " + error.getMessage());
+            callback.onBills(new LinkedHashMap<>(), null);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package edu.ewubd.smartmessMN;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+// Rows of item_meal_entry.xml over a BulkMealSheet, one column per slot of the sheet's
+// MealConfig. Tapping a No/Yes slot flips it locally; other amounts, or a long-press on
+// any slot, go to an explicit edit. Changed rows are highlighted until saved.
+public class BulkMealAdapter extends RecyclerView.Adapter<BulkMealAdapter.ViewHolder> {
+
+    public interface OnChangeListener {
+        void onChanged();
+    }
+
+    public interface OnEditListener {
+        void onEditSlot(int position, int slot);
+    }
+
+    private static final int DIRTY_COLOR = 0xFFFFF3C4;
+    private static final int CLEAN_COLOR = 0xFFFFFFFF;
+
+    private BulkMealSheet sheet;
+    private final OnChangeListener listener;
+    private final OnEditListener editListener;
+
+    public BulkMealAdapter(OnChangeListener listener, OnEditListener editListener) {
+        this.listener = listener;
+        this.editListener = editListener;
+        setHasStableIds(true);
+    }
+
+    public void setSheet(BulkMealSheet sheet) {
+        this.sheet = sheet;
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return sheet == null ? 0 : sheet.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableListAdapter.stableId(sheet.get(position).uid);
+    }
+
+    // Holders are built for the sheet's slot count; a sheet with another config gets new ones
+    @Override
+    public int getItemViewType(int position) {
+        return sheet.config.size();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_meal_entry, parent, false);
+        return new ViewHolder(view, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        BulkMealSheet.Row row = sheet.get(position);
+        holder.tvName.setText(row.name);
+        for (int slot = 0; slot < holder.slots.length; slot++) {
+            holder.slots[slot].setText(label(row.get(slot)));
+        }
+        holder.tvTotal.setText(MealHistoryAdapter.formatValue(row.total()));
+        holder.itemView.setBackgroundColor(row.isDirty() ? DIRTY_COLOR : CLEAN_COLOR);
+    }
+
+    private static String label(double value) {
+        if (value == 0) return "No";
+        if (value == 1) return "Yes";
+        return MealHistoryAdapter.formatValue(value);
+    }
+
+    class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvName, tvTotal;
+        final TextView[] slots;
+
+        ViewHolder(@NonNull View itemView, int slotCount) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.tvname);
+            tvTotal = itemView.findViewById(R.id.tvtotal);
+            slots = SlotColumns.fill(itemView.findViewById(R.id.tvSlot), slotCount);
+
+            for (int slot = 0; slot < slotCount; slot++) {
+                int s = slot;
+                slots[slot].setOnClickListener(v -> {
+                    int position = getBindingAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) return;
+                    if (!sheet.toggle(position, s)) {
+                        editListener.onEditSlot(position, s);
+                        return;
+                    }
+                    notifyItemChanged(position);
+                    listener.onChanged();
+                });
+                slots[slot].setOnLongClickListener(v -> {
+                    int position = getBindingAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) return false;
+                    editListener.onEditSlot(position, s);
+                    return true;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Local editing state of one day's meals for the whole roster.
+// Each row remembers what is stored and what is on screen; only slots where the two
+// differ are written, all in one multi-path update together with their counter deltas.
+// Slot-level writes leave slots this sheet doesn't show (added to the config meanwhile) alone.
+public class BulkMealSheet {
+
+    public static class Row {
+        public final String uid;
+        public final String name;
+        final double[] stored;
+        final double[] current;
+
+        Row(String uid, String name, double[] stored) {
+            this.uid = uid;
+            this.name = name;
+            this.stored = stored.clone();
+            this.current = stored.clone();
+        }
+
+        public double get(int slot) {
+            return current[slot];
+        }
+
+        public double total() {
+            return MealEncoding.sum(current);
+        }
+
+        public boolean isDirty() {
+            return !Arrays.equals(stored, current);
+        }
+    }
+
+    public final String dateKey;
+    public final MealConfig config;
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<Row, double[]> sent = new HashMap<>(); // Values in the last buildUpdates()
+
+    public BulkMealSheet(String dateKey, MealConfig config) {
+        this.dateKey = dateKey;
+        this.config = config;
+    }
+
+    // From the roster (uid -> name) and the raw meals/{date} node
+    static BulkMealSheet from(String dateKey, MealConfig config, Map<String, String> roster, Object rawDay) {
+        BulkMealSheet sheet = new BulkMealSheet(dateKey, config);
+        Map<?, ?> day = rawDay instanceof Map ? (Map<?, ?>) rawDay : null;
+        for (Map.Entry<String, String> member : roster.entrySet()) {
+            double[] slots = SnapshotMappers.meals(day == null ? null : day.get(member.getKey()), config);
+            sheet.rows.add(new Row(member.getKey(), member.getValue(), slots));
+        }
+        return sheet;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public Row get(int position) {
+        return rows.get(position);
+    }
+
+    // Tap on a slot: No <-> Yes. Any other amount (a half meal, a guest's second meal)
+    // is left as it is and false comes back; those are changed with set().
+    public boolean toggle(int position, int slot) {
+        double[] current = rows.get(position).current;
+        if (current[slot] != 0 && current[slot] != 1) return false;
+        current[slot] = current[slot] == 0 ? 1 : 0;
+        return true;
+    }
+
+    public void set(int position, int slot, double value) {
+        rows.get(position).current[slot] = value;
+    }
+
+    // The day as the server has it now (read right before saving). Slots the manager
+    // didn't change follow it, and every delta is taken from it rather than from what
+    // was stored when the sheet loaded.
+    public void rebase(Object rawDay) {
+        Map<?, ?> day = rawDay instanceof Map ? (Map<?, ?>) rawDay : null;
+        for (Row row : rows) {
+            double[] fresh = SnapshotMappers.meals(day == null ? null : day.get(row.uid), config);
+            for (int slot = 0; slot < fresh.length; slot++) {
+                if (row.current[slot] == row.stored[slot]) row.current[slot] = fresh[slot];
+                row.stored[slot] = fresh[slot];
+            }
+        }
+    }
+
+    public int dirtyCount() {
+        int count = 0;
+        for (Row row : rows) if (row.isDirty()) count++;
+        return count;
+    }
+
+    // Paths relative to mess/{code}: both index copies of every changed slot
+    // plus one increment per counter, so 60 edits are still a single write
+    public Map<String, Object> buildUpdates() {
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, Double> deltas = new HashMap<>();
+        sent.clear();
+        for (Row row : rows) {
+            if (!row.isDirty()) continue;
+            double[] c = row.current.clone();
+            sent.put(row, c);
+            for (int slot = 0; slot < c.length; slot++) {
+                if (c[slot] != row.stored[slot]) MealStore.putEntrySlot(updates, row.uid, dateKey, slot, c[slot]);
+            }
+            deltas.put(row.uid, MealEncoding.sum(c) - MealEncoding.sum(row.stored));
+        }
+        MealStore.putTotalsDeltas(updates, dateKey, deltas);
+        return updates;
+    }
+
+    // Once the write is queued, what was sent is what is stored.
+    // Taps made after buildUpdates() stay dirty.
+    public void markSaved() {
+        for (Map.Entry<Row, double[]> e : sent.entrySet()) {
+            System.arraycopy(e.getValue(), 0, e.getKey().stored, 0, e.getValue().length);
+        }
+        sent.clear();
+    }
+}
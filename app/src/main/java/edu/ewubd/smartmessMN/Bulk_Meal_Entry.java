@@ -0,0 +1,282 @@
+package edu.ewubd.smartmessMN;
+
+import android.app.DatePickerDialog;
+import android.content.Context;
+import android.os.Bundle;
+import android.text.InputType;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Manager's checklist: the whole roster for one day, edited locally and saved in one go.
+// Only changed members are written, in a single outbox batch that also moves the
+// month counters, so a full mess is one round trip instead of one per person.
+// Columns follow the mess's meal slots (MealConfig), which the manager edits from here.
+public class Bulk_Meal_Entry extends AppCompatActivity {
+
+    // Views
+    private EditText etDate;
+    private TextView tvChanges, tvHeaderSlot;
+    private Button btnSave;
+
+    // Data
+    private DatabaseReference mDatabase;
+    private MealStore mealStore;
+    private String currentMessCode;
+    private LocalDate selectedDate;
+    private MealConfig mealConfig; // null until the first value arrives
+    private BulkMealSheet sheet;
+    private BulkMealAdapter adapter;
+    private boolean saving = false;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_bulk_meal_entry);
+
+        mDatabase = FirebaseDatabase.getInstance().getReference();
+        currentMessCode = Session.messCode(this);
+
+        etDate = findViewById(R.id.etBulkDate);
+        tvChanges = findViewById(R.id.tvBulkChanges);
+        btnSave = findViewById(R.id.btnBulkSave);
+        tvHeaderSlot = findViewById(R.id.tvBulkHeaderSlot);
+        RecyclerView rvMeals = findViewById(R.id.rvBulkMeals);
+
+        adapter = new BulkMealAdapter(this::updateChanges, this::editSlot);
+        rvMeals.setLayoutManager(new LinearLayoutManager(this));
+        rvMeals.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        rvMeals.setAdapter(adapter);
+
+        selectedDate = LocalDate.now();
+        etDate.setText(DateKeys.display(DateKeys.key(selectedDate)));
+        etDate.setOnClickListener(v -> confirmDiscard(this::showDatePicker));
+        btnSave.setOnClickListener(v -> save());
+        findViewById(R.id.tvMealSlots).setOnClickListener(v -> editMealSlots());
+
+        if (currentMessCode != null) {
+            mealStore = new MealStore(mDatabase, currentMessCode);
+            // The sheet is loaded once the slots are known, and again when they change
+            MessDataStore.get(currentMessCode).mealConfig().observe(this, this::onMealConfig);
+        } else {
+            Toast.makeText(this, "Mess Code Missing", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    @Override
+    public void onBackPressed() {
+        confirmDiscard(super::onBackPressed);
+    }
+
+    // --- LOADING ---
+    private void onMealConfig(MealConfig config) {
+        if (config.equals(mealConfig)) return;
+        mealConfig = config;
+        // Unsaved taps stay on the sheet they were made on; the next load picks up the change
+        if (sheet == null || sheet.dirtyCount() == 0) loadSheet();
+    }
+
+    private void loadSheet() {
+        if (mealConfig == null) return;
+        String dateKey = DateKeys.key(selectedDate);
+        MealConfig config = mealConfig;
+        RosterCache.get(mDatabase, currentMessCode, new RosterCache.Callback() {
+            @Override
+            public void onRoster(List<RosterCache.Member> roster) {
+                Map<String, String> names = new LinkedHashMap<>();
+                for (RosterCache.Member member : roster) {
+                    names.put(member.uid, member.name);
+                }
+                mealStore.dayRef(dateKey).addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        SnapshotMappers.mapAsync(() -> BulkMealSheet.from(dateKey, config, names, snapshot.getValue()), loaded -> {
+                            // The date (or the slots) may have changed while this was loading
+                            if (!dateKey.equals(DateKeys.key(selectedDate)) || config != mealConfig) return;
+                            sheet = loaded;
+                            SlotColumns.header(tvHeaderSlot, config);
+                            adapter.setSheet(sheet);
+                            updateChanges();
+                        });
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Toast.makeText(Bulk_Meal_Entry.this, "Failed to load meals", Toast.LENGTH_SHORT).show();
+                    }
+                });
+            }
+            @Override
+            public void onError(String message) {
+                Toast.makeText(Bulk_Meal_Entry.this, "Failed to load members", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showDatePicker() {
+        // DatePickerDialog months are 0-based, LocalDate months are 1-based
+        new DatePickerDialog(this, (view, year, month, day) -> {
+            selectedDate = LocalDate.of(year, month + 1, day);
+            etDate.setText(DateKeys.display(DateKeys.key(selectedDate)));
+            sheet = null;
+            adapter.setSheet(null);
+            updateChanges();
+            loadSheet();
+        }, selectedDate.getYear(), selectedDate.getMonthValue() - 1, selectedDate.getDayOfMonth()).show();
+    }
+
+    // --- SAVING ---
+    private void updateChanges() {
+        int dirty = sheet == null ? 0 : sheet.dirtyCount();
+        tvChanges.setText(dirty == 0 ? "No changes" : dirty + (dirty == 1 ? " member changed" : " members changed"));
+        btnSave.setEnabled(dirty > 0 && !saving);
+    }
+
+    private void save() {
+        if (sheet == null || saving || sheet.dirtyCount() == 0) return;
+        BulkMealSheet saved = sheet;
+        saving = true;
+        updateChanges();
+
+        // Deltas are taken from the day as it is now, not as it was when the sheet loaded:
+        // autosaves and other managers may have moved entries since then
+        mealStore.dayRef(saved.dateKey).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                saving = false;
+                saved.rebase(snapshot.getValue());
+                int count = saved.dirtyCount();
+                // Every changed slot + counter deltas, one atomic batch
+                Map<String, Object> updates = saved.buildUpdates();
+                if (!updates.isEmpty()) send(saved, updates, count);
+                if (saved == sheet) adapter.notifyDataSetChanged();
+                updateChanges();
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                saving = false;
+                updateChanges();
+                Toast.makeText(Bulk_Meal_Entry.this, "Failed to save meals", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void send(BulkMealSheet saved, Map<String, Object> updates, int count) {
+        String members = count + (count == 1 ? " member" : " members");
+        Context app = getApplicationContext();
+        OutboxSync.writeMess(currentMessCode, updates, ok -> Toast.makeText(app,
+                ok ? "Saved meals for " + members : "Meals for " + members + " could not be synced",
+                Toast.LENGTH_SHORT).show());
+        // Queued: Firebase applies it locally right away and keeps resending until it lands
+        saved.markSaved();
+        if (!OutboxSync.get().isConnected()) {
+            Toast.makeText(this, "Meals saved offline, will sync when online", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // Long-press, or a tap on an amount other than No/Yes: type the amount
+    private void editSlot(int position, int slot) {
+        if (sheet == null) return;
+        BulkMealSheet edited = sheet;
+        BulkMealSheet.Row row = edited.get(position);
+        EditText etAmount = new EditText(this);
+        etAmount.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_DECIMAL);
+        etAmount.setText(MealHistoryAdapter.formatValue(row.get(slot)));
+        etAmount.setSelectAllOnFocus(true);
+
+        new AlertDialog.Builder(this)
+                .setTitle(row.name + " - " + edited.config.label(slot))
+                .setView(etAmount)
+                .setPositiveButton("Set", (d, w) -> {
+                    double value = MealAutosave.parse(etAmount.getText().toString(), edited.config);
+                    if (Double.isNaN(value)) {
+                        Toast.makeText(this, edited.config.halfMeals
+                                ? "Enter 0 - 10, in steps of 0.5" : "Enter a whole number, 0 - 10", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    if (edited != sheet) return; // Date changed while the dialog was open
+                    edited.set(position, slot, value);
+                    adapter.notifyItemChanged(position);
+                    updateChanges();
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    // --- MEAL SLOTS ---
+    // Slots can be renamed or added at the end (entries are stored by position)
+    private void editMealSlots() {
+        if (mealConfig == null) return;
+        MealConfig current = mealConfig;
+        EditText etSlots = new EditText(this);
+        etSlots.setText(String.join(", ", current.labels()));
+        CheckBox cbHalf = new CheckBox(this);
+        cbHalf.setText("Allow half meals");
+        cbHalf.setChecked(current.halfMeals);
+        LinearLayout form = new LinearLayout(this);
+        form.setOrientation(LinearLayout.VERTICAL);
+        int pad = (int) (16 * getResources().getDisplayMetrics().density);
+        form.setPadding(pad, pad / 2, pad, 0);
+        form.addView(etSlots);
+        form.addView(cbHalf);
+
+        new AlertDialog.Builder(this)
+                .setTitle("Meal slots")
+                .setMessage("Comma separated, e.g. Breakfast, Lunch, Dinner, Iftar. Existing slots can be renamed, not removed.")
+                .setView(form)
+                .setPositiveButton("Save", (d, w) -> saveMealSlots(current,
+                        MealConfig.fromInput(etSlots.getText().toString(), cbHalf.isChecked())))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void saveMealSlots(MealConfig current, MealConfig edited) {
+        String problem = current.checkEdit(edited);
+        if (problem != null) {
+            Toast.makeText(this, problem, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (edited.equals(current)) return;
+        Map<String, Object> updates = new HashMap<>();
+        MealConfig.put(updates, edited);
+        Context app = getApplicationContext();
+        OutboxSync.writeMess(currentMessCode, updates, ok -> {
+            if (!ok) Toast.makeText(app, "Meal slots could not be synced", Toast.LENGTH_LONG).show();
+        });
+    }
+
+    private void confirmDiscard(Runnable action) {
+        int dirty = sheet == null ? 0 : sheet.dirtyCount();
+        if (dirty == 0) {
+            action.run();
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Unsaved changes")
+                .setMessage("Discard changes for " + dirty + (dirty == 1 ? " member?" : " members?"))
+                .setPositiveButton("Discard", (d, w) -> action.run())
+                .setNegativeButton("Keep editing", null)
+                .show();
+    }
+}
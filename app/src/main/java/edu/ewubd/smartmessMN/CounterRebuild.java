@@ -0,0 +1,153 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Rebuilds a counter node (mealTotals/{month}, expenseTotals/{month}, memberCounts) from
+// the records it sums, for migrations. The records and the counters can't be read in one
+// go, and every edit moves both in one update, so:
+//   1. the counters are watched while the records are read,
+//   2. the sums go in with a transaction that only commits if the counters still hold
+//      what they held before the records were read - no edit landed in between, so the
+//      records read and the counters agree on which edits they contain,
+//   3. otherwise the records are read again (up to MAX_ATTEMPTS).
+// The sums replace the keys they cover; other keys of the node are left alone. The one
+// case this can't see is an edit and its exact undo both landing during one read.
+public final class CounterRebuild {
+
+    private static final String TAG = "CounterRebuild";
+    static final int MAX_ATTEMPTS = 5;
+
+    public interface Sums {
+        // The values the counter node should hold, by key; null if the records couldn't be read
+        void onSums(Map<String, Object> sums);
+    }
+
+    public interface Source {
+        void read(Sums sums);
+    }
+
+    public interface Done {
+        void onDone(boolean ok);
+    }
+
+    private final DatabaseReference countersRef;
+    private final Source source;
+    private final Done done;
+    private ValueEventListener watcher;
+    private Object latest;     // The counters as last seen by the watcher
+    private boolean finished;
+    private int attempts;
+
+    private CounterRebuild(DatabaseReference countersRef, Source source, Done done) {
+        this.countersRef = countersRef;
+        this.source = source;
+        this.done = done;
+    }
+
+    public static void run(DatabaseReference countersRef, Source source, Done done) {
+        new CounterRebuild(countersRef, source, done).start();
+    }
+
+    private void start() {
+        // Also keeps the node in the local cache, so the transaction starts from the real value
+        watcher = countersRef.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                latest = snapshot.getValue();
+                if (attempts == 0) attempt();
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Counter read failed: " + error.getMessage());
+                finish(false);
+            }
+        });
+    }
+
+    private void attempt() {
+        if (finished) return;
+        attempts++;
+        Object expected = latest;
+        source.read(sums -> {
+            if (sums == null) finish(false);
+            else commit(expected, sums);
+        });
+    }
+
+    private void commit(Object expected, Map<String, Object> sums) {
+        countersRef.runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                if (!same(currentData.getValue(), expected)) {
+                    return Transaction.abort(); // An edit landed: the records read may be out of date
+                }
+                currentData.setValue(rebuilt(currentData.getValue(), sums));
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    Log.w(TAG, "Counter rebuild failed: " + error.getMessage());
+                    finish(false);
+                } else if (committed) {
+                    finish(true);
+                } else if (attempts < MAX_ATTEMPTS) {
+                    attempt();
+                } else {
+                    Log.w(TAG, "Counters kept moving, gave up on " + countersRef.getKey());
+                    finish(false);
+                }
+            }
+        });
+    }
+
+    private void finish(boolean ok) {
+        if (finished) return;
+        finished = true;
+        if (watcher != null) countersRef.removeEventListener(watcher);
+        done.onDone(ok);
+    }
+
+    // current with every key of sums replaced
+    static Map<String, Object> rebuilt(Object current, Map<String, Object> sums) {
+        Map<String, Object> node = new HashMap<>();
+        if (current instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) current).entrySet()) node.put(String.valueOf(e.getKey()), e.getValue());
+        }
+        node.putAll(sums);
+        return node;
+    }
+
+    // Same tree with the same numbers (Long 3 and Double 3.0 are the same count)
+    static boolean same(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        if (a instanceof Map && b instanceof Map) {
+            Map<?, ?> ma = (Map<?, ?>) a, mb = (Map<?, ?>) b;
+            Set<Object> keys = new HashSet<>(ma.keySet());
+            keys.addAll(mb.keySet());
+            for (Object key : keys) {
+                if (!same(ma.get(key), mb.get(key))) return false;
+            }
+            return true;
+        }
+        return a == null ? b == null : a.equals(b);
+    }
+}
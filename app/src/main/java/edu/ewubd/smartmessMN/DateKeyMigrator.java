@@ -0,0 +1,206 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+// One-time rewrite of old dates to ISO keys (see DateKeys).
+// Expenses are streamed a page at a time by push key and only the date leaf of an
+// old record is rewritten. When the last page is done, the expense counters of every
+// month seen are rebuilt with a date range query, and the join dates of the whole
+// roster are fixed (version 2).
+public class DateKeyMigrator {
+
+    private static final String TAG = "DateKeyMigrator";
+    static final int SCHEMA_VERSION = 2;
+    private static final int PAGE_SIZE = 50;
+
+    private final MessDataStore store;
+    private final DatabaseReference messRef;
+    private final DatabaseReference schemaRef;
+    private final TreeSet<String> months = new TreeSet<>(); // Every expense month seen
+
+    public DateKeyMigrator(MessDataStore store) {
+        this.store = store;
+        this.messRef = store.messRef();
+        this.schemaRef = messRef.child("schema").child("dates");
+    }
+
+    public void runIfNeeded() {
+        schemaRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long version = snapshot.getValue(Long.class);
+                if (version == null || version < SCHEMA_VERSION) {
+                    migratePage(null);
+                }
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Schema check failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private void migratePage(String lastKey) {
+        Query page = messRef.child("expenses").orderByKey();
+        if (lastKey != null) page = page.startAfter(lastKey);
+
+        page.limitToFirst(PAGE_SIZE).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Object> updates = new HashMap<>();
+                String nextKey = null;
+                long count = 0;
+
+                for (DataSnapshot expense : snapshot.getChildren()) {
+                    nextKey = expense.getKey();
+                    count++;
+                    String date = expense.child("date").getValue(String.class);
+                    String key = DateKeys.normalize(date, DateKeys.LEGACY_EXPENSE);
+                    if (key == null) continue;
+                    months.add(DateKeys.month(key));
+                    if (!key.equals(date)) {
+                        updates.put("expenses/" + nextKey + "/date", key);
+                    }
+                }
+
+                boolean lastPage = count < PAGE_SIZE;
+                String resumeKey = nextKey;
+                if (updates.isEmpty()) {
+                    if (lastPage) finish();
+                    else migratePage(resumeKey);
+                    return;
+                }
+                messRef.updateChildren(updates)
+                        .addOnSuccessListener(v -> {
+                            if (lastPage) finish();
+                            else migratePage(resumeKey);
+                        })
+                        .addOnFailureListener(e -> Log.w(TAG, "Date migration failed", e));
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Date migration read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    // Months one at a time, then the member join dates, then the schema mark
+    private void finish() {
+        rebuildTotals(months.iterator());
+    }
+
+    // A month's expense counters from a date range query: expenses saved before the counters
+    // existed are counted too. The sums only go in if no expense moved the counters while
+    // the month was being read (see CounterRebuild).
+    private void rebuildTotals(Iterator<String> remaining) {
+        if (!remaining.hasNext()) {
+            normalizeJoinDates();
+            return;
+        }
+        String month = remaining.next();
+        CounterRebuild.run(messRef.child("expenseTotals").child(month), sums ->
+                store.expensesBetween(DateKeys.monthStart(month), DateKeys.monthEnd(month))
+                        .addListenerForSingleValueEvent(new ValueEventListener() {
+                            @Override
+                            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                                Map<String, Double> paidBy = new HashMap<>();
+                                Map<String, Double> types = new HashMap<>();
+                                types.put("Grocery", 0.0);
+                                types.put("Other", 0.0);
+                                for (DataSnapshot expense : snapshot.getChildren()) {
+                                    Double amount = expense.child("amount").getValue(Double.class);
+                                    if (amount == null) continue;
+                                    add(types, "Grocery".equalsIgnoreCase(expense.child("type").getValue(String.class)) ? "Grocery" : "Other", amount);
+                                    String uid = expense.child("uid").getValue(String.class);
+                                    if (uid != null) add(paidBy, uid, amount);
+                                }
+                                Map<String, Object> totals = new HashMap<>(types);
+                                totals.put("paidBy", paidBy);
+                                sums.onSums(totals);
+                            }
+                            @Override
+                            public void onCancelled(@NonNull DatabaseError error) {
+                                Log.w(TAG, "Expense range read failed: " + error.getMessage());
+                                sums.onSums(null);
+                            }
+                        }), ok -> {
+                    // A month that didn't go in leaves the schema unmarked, so the next run retries
+                    if (ok) rebuildTotals(remaining);
+                });
+    }
+
+    // Profiles written by older builds keep joinDate as dd/MM/yyyy. Every member of the
+    // mess (and their roster/archive copy) is fixed here, not just whoever opens the app.
+    private void normalizeJoinDates() {
+        store.rootRef().child("users").orderByChild("messCode").equalTo(store.messCode())
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot users) {
+                        Map<String, Object> updates = new HashMap<>();
+                        for (DataSnapshot user : users.getChildren()) {
+                            putNormalized(updates, "users/" + user.getKey() + "/joinDate", user.child("joinDate"));
+                        }
+                        normalizeRoster(updates);
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Log.w(TAG, "Profile read failed: " + error.getMessage());
+                    }
+                });
+    }
+
+    private void normalizeRoster(Map<String, Object> updates) {
+        String base = "mess/" + store.messCode() + "/";
+        messRef.child("roster").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot roster) {
+                for (DataSnapshot member : roster.getChildren()) {
+                    putNormalized(updates, base + "roster/" + member.getKey() + "/joined", member.child("joined"));
+                }
+                messRef.child(MemberLifecycle.ARCHIVE).addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot archive) {
+                        for (DataSnapshot member : archive.getChildren()) {
+                            putNormalized(updates, base + MemberLifecycle.ARCHIVE + "/" + member.getKey() + "/joined", member.child("joined"));
+                        }
+                        updates.put(base + "schema/dates", SCHEMA_VERSION);
+                        store.rootRef().updateChildren(updates)
+                                .addOnFailureListener(e -> Log.w(TAG, "Join date fix failed", e));
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Log.w(TAG, "Archive read failed: " + error.getMessage());
+                    }
+                });
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Roster read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private static void putNormalized(Map<String, Object> updates, String path, DataSnapshot date) {
+        String value = date.getValue(String.class);
+        String key = DateKeys.normalize(value, DateKeys.LEGACY_JOIN);
+        if (key != null && !key.equals(value)) updates.put(path, key);
+    }
+
+    private static void add(Map<String, Double> sums, String key, double amount) {
+        Double old = sums.get(key);
+        sums.put(key, (old == null ? 0 : old) + amount);
+    }
+}
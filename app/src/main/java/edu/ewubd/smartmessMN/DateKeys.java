@@ -0,0 +1,94 @@
+package edu.ewubd.smartmessMN;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+// The one date format stored in the database: ISO yyyy-MM-dd (and yyyy-MM for months).
+// ISO keys sort the same as strings and as dates, so orderByKey / orderByChild("date")
+// range queries just work. The formatters are immutable and shared; nothing here
+// allocates a SimpleDateFormat.
+public final class DateKeys {
+
+    private static final DateTimeFormatter KEY = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter DISPLAY = DateTimeFormatter.ofPattern("MMM dd, yyyy", Locale.US);
+    private static final DateTimeFormatter DISPLAY_MONTH = DateTimeFormatter.ofPattern("MMMM yyyy", Locale.US);
+
+    // Formats older builds wrote; only used to read them back
+    static final DateTimeFormatter LEGACY_EXPENSE = DateTimeFormatter.ofPattern("MM/dd/yyyy", Locale.US);
+    static final DateTimeFormatter LEGACY_JOIN = DateTimeFormatter.ofPattern("dd/MM/yyyy", Locale.US);
+
+    private DateKeys() {}
+
+    public static String today() {
+        return key(LocalDate.now());
+    }
+
+    public static String key(LocalDate date) {
+        return date.format(KEY);
+    }
+
+    // DatePickerDialog months are 0-based
+    public static String key(int year, int month0, int day) {
+        return key(LocalDate.of(year, month0 + 1, day));
+    }
+
+    public static LocalDate parse(String key) {
+        return LocalDate.parse(key, KEY);
+    }
+
+    public static String display(String key) {
+        return parse(key).format(DISPLAY);
+    }
+
+    // --- MONTHS ---
+
+    public static String currentMonth() {
+        return month(today());
+    }
+
+    public static String month(String key) {
+        return key.substring(0, 7);
+    }
+
+    public static String previousMonth(String monthKey) {
+        return YearMonth.parse(monthKey).minusMonths(1).toString();
+    }
+
+    public static String displayMonth(String monthKey) {
+        return YearMonth.parse(monthKey).format(DISPLAY_MONTH);
+    }
+
+    public static String monthStart(String monthKey) {
+        return monthKey + "-01";
+    }
+
+    public static String monthEnd(String monthKey) {
+        return key(YearMonth.parse(monthKey).atEndOfMonth());
+    }
+
+    // --- CHECKS & OLD FORMATS ---
+
+    public static boolean isKey(String value) {
+        if (value == null || value.length() != 10 || value.charAt(4) != '-' || value.charAt(7) != '-') return false;
+        try {
+            parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // ISO key for a value that may still be in an old format; null if it can't be read
+    static String normalize(String value, DateTimeFormatter legacy) {
+        if (value == null) return null;
+        if (isKey(value)) return value;
+        try {
+            return key(LocalDate.parse(value.trim(), legacy));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One day of the manager's meal sheet in Meal_History: a row per roster member (roster
+// order) plus the day's slot totals. In live mode every child event goes through
+// apply(), which swaps that one member's row and moves the totals by the difference,
+// so nothing is rebuilt or re-summed per event.
+public class DaySheet {
+
+    final String dateKey;
+    private final ArrayList<MealHistoryItem> rows;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final double[] totals;
+
+    // Rows must all have slotCount slots (same MealConfig)
+    public DaySheet(String dateKey, int slotCount, List<MealHistoryItem> rows) {
+        this.dateKey = dateKey;
+        this.rows = new ArrayList<>(rows);
+        this.totals = new double[slotCount];
+        for (int i = 0; i < this.rows.size(); i++) {
+            MealHistoryItem row = this.rows.get(i);
+            index.put(row.uid, i);
+            for (int slot = 0; slot < slotCount; slot++) totals[slot] += row.slots[slot];
+        }
+    }
+
+    public int slotCount() {
+        return totals.length;
+    }
+
+    // New values of one member (zeros when the entry was removed). False if the member
+    // is not on the sheet or nothing changed.
+    public boolean apply(String uid, double[] slots) {
+        Integer i = index.get(uid);
+        if (i == null) return false;
+        MealHistoryItem old = rows.get(i);
+        if (Arrays.equals(old.slots, slots)) return false;
+
+        for (int slot = 0; slot < totals.length; slot++) totals[slot] += slots[slot] - old.slots[slot];
+        // A new item rather than editing the old one: lists already handed to the
+        // adapter must not change under it
+        rows.set(i, new MealHistoryItem(uid, old.userName, slots.clone()));
+        return true;
+    }
+
+    // Copy for the adapter (same items, so the diff only rebinds changed rows)
+    public ArrayList<MealHistoryItem> rows() {
+        return new ArrayList<>(rows);
+    }
+
+    public double total(int slot) {
+        return totals[slot];
+    }
+
+    public double grandTotal() {
+        return MealEncoding.sum(totals);
+    }
+}
@@ -0,0 +1,38 @@
+package edu.ewubd.smartmessMN;
+
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Money members hand to the manager.
+// Path: mess/{code}/deposits/{pushId}                  append-only log, never edited;
+//                                                       a refund is a negative entry
+//       mess/{code}/depositTotals/{yyyy-MM}/members/{uid}
+//       mess/{code}/depositTotals/{yyyy-MM}/mess
+// The log entry, both counters and the ledger move in one multi-path update, so a
+// member's balance is read from counters and never from the log.
+public class Deposits {
+
+    public static final String NODE = "deposits";
+    public static final String TOTALS = "depositTotals";
+
+    public static void putDeposit(Map<String, Object> updates, String depositId, String uid, String name,
+                                  double amount, String dateKey, String note, String byUid) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("id", depositId);
+        entry.put("uid", uid);
+        entry.put("user", name);
+        entry.put("amount", amount);
+        entry.put("date", dateKey);
+        entry.put("note", note);
+        entry.put("by", byUid);
+        entry.put("createdAt", ServerValue.TIMESTAMP);
+        updates.put(NODE + "/" + depositId, entry);
+
+        String monthKey = DateKeys.month(dateKey);
+        updates.put(TOTALS + "/" + monthKey + "/members/" + uid, ServerValue.increment(amount));
+        updates.put(TOTALS + "/" + monthKey + "/mess", ServerValue.increment(amount));
+        Ledger.putDeposit(updates, monthKey, amount);
+    }
+}
@@ -1,43 +1,70 @@
 package edu.ewubd.smartmessMN;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.TextView;
+
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
-import java.util.ArrayList;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Objects;
 
-public class ExpenseAdapter extends ArrayAdapter<ExpenseItem> {
+public class ExpenseAdapter extends StableListAdapter<ExpenseItem, ExpenseAdapter.ViewHolder> {
 
-    public ExpenseAdapter(@NonNull Context context, ArrayList<ExpenseItem> expenseList) {
-        super(context, 0, expenseList);
+    public ExpenseAdapter() {
+        super(DIFF);
     }
 
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        View listItemView = convertView;
-        if (listItemView == null) {
-            listItemView = LayoutInflater.from(getContext()).inflate(R.layout.activity_row_expense_list, parent, false);
-        }
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.activity_row_expense_list, parent, false);
+        return new ViewHolder(view);
+    }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         ExpenseItem currentExpense = getItem(position);
+        holder.tvUser.setText(currentExpense.user);
+        holder.tvItem.setText(currentExpense.item);
+        holder.tvDate.setText(currentExpense.date);
+        // Whole taka, same as "%.0f" but without a Formatter per row
+        holder.tvAmount.setText(Long.toString(Math.round(currentExpense.amount)));
+    }
+
+    @Override
+    protected String keyOf(ExpenseItem item) {
+        return item.id;
+    }
 
-        TextView tvUser = listItemView.findViewById(R.id.tv_row_user);
-        TextView tvItem = listItemView.findViewById(R.id.tv_row_item);
-        TextView tvDate = listItemView.findViewById(R.id.tv_row_date);
-        TextView tvAmount = listItemView.findViewById(R.id.tv_row_amount);
+    // Views are looked up once per row view, not on every bind
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvUser, tvItem, tvDate, tvAmount;
 
-        if (currentExpense != null) {
-            tvUser.setText(currentExpense.user);
-            tvItem.setText(currentExpense.item);
-            tvDate.setText(currentExpense.date);
-            tvAmount.setText(String.format("%.0f", currentExpense.amount));
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvUser = itemView.findViewById(R.id.tv_row_user);
+            tvItem = itemView.findViewById(R.id.tv_row_item);
+            tvDate = itemView.findViewById(R.id.tv_row_date);
+            tvAmount = itemView.findViewById(R.id.tv_row_amount);
         }
-
-        return listItemView;
     }
-}
\ No newline at end of file
+
+    private static final DiffUtil.ItemCallback<ExpenseItem> DIFF = new DiffUtil.ItemCallback<ExpenseItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ExpenseItem a, @NonNull ExpenseItem b) {
+            return Objects.equals(a.id, b.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ExpenseItem a, @NonNull ExpenseItem b) {
+            return a.amount == b.amount
+                    && Objects.equals(a.user, b.user)
+                    && Objects.equals(a.item, b.item)
+                    && Objects.equals(a.date, b.date)
+                    && Objects.equals(a.type, b.type);
+        }
+    };
+}
@@ -0,0 +1,236 @@
+package edu.ewubd.smartmessMN;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Newest-first list of a mess's expenses, kept in memory for the whole process.
+// Ordered and paged by the expense's date (yyyy-MM-dd, push key breaks ties), so an
+// expense entered late for an earlier day lands where its date puts it. Needs
+// ".indexOn": ["date"] on mess/$code/expenses (see MessDataStore.expensesBetween).
+// The newest page is live through child events, so only the changed expense crosses the
+// wire; it also arrives that way in the first place (one download, see loadFirstPage).
+// Older pages are fetched once with loadMore(). Failed reads are reported on errors().
+// Snapshots are mapped off the main thread (SnapshotMappers) and observers always
+// receive an unmodifiable copy.
+public class ExpenseFeed extends LiveData<List<ExpenseItem>> {
+
+    private static final int PAGE_SIZE = 30;
+    private static final long LINGER_MS = 30 * 1000;
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    private static final String ORDER = "date";
+
+    // Newest first: later date, then later push key on the same day
+    static final Comparator<ExpenseItem> NEWEST_FIRST = (a, b) -> {
+        int byDate = String.valueOf(b.date).compareTo(String.valueOf(a.date));
+        return byDate != 0 ? byDate : String.valueOf(b.id).compareTo(String.valueOf(a.id));
+    };
+
+    private final DatabaseReference expensesRef;
+    private final ArrayList<ExpenseItem> items = new ArrayList<>();
+    private final Map<String, ExpenseItem> byId = new HashMap<>();
+    private final MutableLiveData<String> loadError = new MutableLiveData<>();
+
+    private Query liveQuery;
+    private ListenerRegistry.Subscription subscription;
+    private String oldestDate, oldestKey; // Oldest (date, key) currently loaded
+    private boolean loadingMore, reachedEnd;
+    private boolean publishPending;
+
+    public ExpenseFeed(DatabaseReference expensesRef) {
+        this.expensesRef = expensesRef;
+    }
+
+    @Override
+    protected void onActive() {
+        handler.removeCallbacks(detach);
+        if (subscription != null) return;
+        if (liveQuery != null) {
+            subscription = ListenerRegistry.get().observeChildren(liveQuery, childListener);
+        } else {
+            loadFirstPage();
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        handler.postDelayed(detach, LINGER_MS);
+    }
+
+    private final Runnable detach = () -> {
+        if (subscription != null) {
+            subscription.remove();
+            subscription = null;
+        }
+    };
+
+    public boolean isLoadingMore() {
+        return loadingMore;
+    }
+
+    // Message of the last failed read, null while loading works
+    public LiveData<String> errors() {
+        return loadError;
+    }
+
+    // --- FIRST PAGE + LIVE WINDOW ---
+    // The live listener's first onChildAdded batch is the first page: the newest PAGE_SIZE
+    // expenses, downloaded once. The single-value read of the same query is answered from
+    // that same listen (no second round trip) and only sets the paging cursor.
+    private void loadFirstPage() {
+        loadError.setValue(null);
+        liveQuery = expensesRef.orderByChild(ORDER).limitToLast(PAGE_SIZE);
+        subscription = ListenerRegistry.get().observeChildren(liveQuery, childListener);
+        liveQuery.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (oldestKey != null) return; // loadMore has moved the cursor already
+                if (snapshot.hasChildren()) {
+                    DataSnapshot oldest = snapshot.getChildren().iterator().next();
+                    oldestDate = dateOf(oldest);
+                    oldestKey = oldest.getKey();
+                }
+                reachedEnd = snapshot.getChildrenCount() < PAGE_SIZE;
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {} // Reported by the child listener
+        });
+    }
+
+    // A malformed (non-text) date must not throw here on the main thread
+    private static String dateOf(DataSnapshot expense) {
+        Object date = expense.child(ORDER).getValue();
+        return date instanceof String ? (String) date : null;
+    }
+
+    // Snapshots are mapped on the parser thread; changes are applied here on the main
+    // thread in the same order Firebase delivered them
+    private final ChildEventListener childListener = new ChildEventListener() {
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+            SnapshotMappers.mapAsync(() -> SnapshotMappers.expense(snapshot), ExpenseFeed.this::upsert);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+            SnapshotMappers.mapAsync(() -> SnapshotMappers.expense(snapshot), ExpenseFeed.this::upsert);
+        }
+
+        // The window is the newest PAGE_SIZE rows, so a row also leaves it when a newer one
+        // comes in. It only leaves the list if it is really gone.
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            String id = snapshot.getKey();
+            expensesRef.child(id).addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot current) {
+                    // Through the same queue so it can't overtake an earlier add
+                    if (!current.exists()) SnapshotMappers.mapAsync(() -> id, ExpenseFeed.this::remove);
+                }
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {}
+            });
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {}
+
+        // Firebase has dropped the listener; the next observer starts over from the first page
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            if (subscription != null) {
+                subscription.remove();
+                subscription = null;
+            }
+            liveQuery = null;
+            loadError.setValue("Expenses could not be loaded: " + error.getMessage());
+        }
+    };
+
+    // Re-attaching replays existing children, so adds are upserts. A new expense can be
+    // dated before ones already shown, and an edit can change the date, so both go to
+    // wherever the date puts them.
+    private void upsert(ExpenseItem expense) {
+        if (expense == null) return;
+        ExpenseItem old = byId.put(expense.id, expense);
+        if (old != null) items.remove(old);
+        int at = Collections.binarySearch(items, expense, NEWEST_FIRST);
+        items.add(at < 0 ? -at - 1 : at, expense);
+        publish();
+    }
+
+    private void remove(String id) {
+        ExpenseItem old = byId.remove(id);
+        if (old == null) return;
+        items.remove(old);
+        publish();
+    }
+
+    // --- OLDER PAGES ---
+    public void loadMore() {
+        if (loadingMore || reachedEnd || oldestKey == null) return;
+        loadingMore = true;
+
+        expensesRef.orderByChild(ORDER).endBefore(oldestDate, oldestKey).limitToLast(PAGE_SIZE)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        boolean lastPage = snapshot.getChildrenCount() < PAGE_SIZE;
+                        // Cursor from the raw page, not the mapped one: rows that don't map
+                        // (malformed expenses) must still move it, or the same page comes back
+                        DataSnapshot oldest = snapshot.hasChildren() ? snapshot.getChildren().iterator().next() : null;
+                        SnapshotMappers.mapAsync(() -> SnapshotMappers.expenses(snapshot), page -> {
+                            loadingMore = false;
+                            reachedEnd = lastPage;
+                            if (oldest != null) {
+                                oldestDate = dateOf(oldest);
+                                oldestKey = oldest.getKey();
+                            }
+                            // Page is oldest -> newest, the feed is newest -> oldest
+                            for (int i = page.size() - 1; i >= 0; i--) {
+                                ExpenseItem expense = page.get(i);
+                                if (byId.containsKey(expense.id)) continue;
+                                items.add(expense);
+                                byId.put(expense.id, expense);
+                            }
+                            publish();
+                        });
+                    }
+
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        loadingMore = false;
+                        loadError.setValue("Older expenses could not be loaded: " + error.getMessage());
+                    }
+                });
+    }
+
+    // A burst of child events (e.g. the first page arriving) ends in one copy + one diff
+    private void publish() {
+        if (publishPending) return;
+        publishPending = true;
+        handler.post(publishNow);
+    }
+
+    private final Runnable publishNow = () -> {
+        publishPending = false;
+        setValue(Collections.unmodifiableList(new ArrayList<>(items)));
+    };
+}
@@ -7,6 +7,7 @@ public class ExpenseItem {
     public String date;
     public double amount;
     public String type; // "Grocery" or "Other"
+    public String uid;  // Who paid
 
     public ExpenseItem() {
         // Default constructor required for Firebase
@@ -1,16 +1,21 @@
 package edu.ewubd.smartmessMN;
 
 import android.content.Intent;
+import android.content.Context;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.ListView;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
@@ -19,23 +24,38 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class Expense_List extends AppCompatActivity {
 
     // Views
-    private TextView tvBalance, tvDueDate;
+    private TextView tvBalance, tvDueDate, tvMonthBreakdown;
     // Changed to EditText as per your request
     private EditText etBillRent, etBillElectric, etBillGas, etBillWater, etBillUtility, etBillInternet;
-    private ListView lvGrocery, lvOther;
-    private Button btnAddExpense;
+    private RecyclerView rvExpenses;
+    private Button btnAddExpense, btnSettlement, btnAddDeposit;
 
-    // Adapters & Lists
+    // Adapters: [Grocery header][grocery rows][Other header][other rows] in one RecyclerView
     private ExpenseAdapter groceryAdapter, otherAdapter;
-    private ArrayList<ExpenseItem> groceryList, otherList;
+    private LinearLayoutManager layoutManager;
+    private static final int LOAD_MORE_THRESHOLD = 10; // Rows from the end that trigger the next page
 
     // Firebase
     private DatabaseReference mDatabase;
     private String currentMessCode, currentUserRole;
+    private MessDataStore store;
+
+    // Bills of the current month
+    private EditText[] billFields;                 // Same order as Bills.KEYS
+    private TextView tvBillsTitle, tvBillsStatus;
+    private Button btnSaveBills;
+    private View containerBillsSave;
+    private String billsMonth;
+    private final Map<String, Double> storedBills = new LinkedHashMap<>(); // What the ledger already has for billsMonth
+    private boolean billsMonthSaved;               // monthBills/{billsMonth} exists (or is queued)
+    private String carriedFrom;                    // Where unsaved defaults came from, for the status line
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -45,6 +65,7 @@ public class Expense_List extends AppCompatActivity {
         // 1. Initialize Views
         tvBalance = findViewById(R.id.tv_balance_amount);
         tvDueDate = findViewById(R.id.tv_due_date);
+        tvMonthBreakdown = findViewById(R.id.tv_month_breakdown);
 
         // Bill EditTexts (Ensure IDs match your XML)
         etBillRent = findViewById(R.id.et_bill_rent); // Note: XML ID might still be 'tv_', check your XML!
@@ -53,33 +74,48 @@ public class Expense_List extends AppCompatActivity {
         etBillWater = findViewById(R.id.et_bill_water);
         etBillUtility = findViewById(R.id.et_bill_utility);
         etBillInternet = findViewById(R.id.et_bill_internet);
-
-        // Lists
-        lvGrocery = findViewById(R.id.lv_grocery_items);
-        lvOther = findViewById(R.id.lv_other_items);
+        billFields = new EditText[]{etBillRent, etBillElectric, etBillGas, etBillWater, etBillUtility, etBillInternet};
+        tvBillsTitle = findViewById(R.id.tv_bills_title);
+        tvBillsStatus = findViewById(R.id.tv_bills_status);
+        btnSaveBills = findViewById(R.id.btn_save_bills);
+        containerBillsSave = findViewById(R.id.container_bills_save);
+        billsMonth = DateKeys.currentMonth();
+
+        // List
+        rvExpenses = findViewById(R.id.rv_expenses);
         btnAddExpense = findViewById(R.id.btn_add_expense);
+        btnSettlement = findViewById(R.id.btn_settlement);
+        btnAddDeposit = findViewById(R.id.btn_add_deposit);
 
         // 2. Initialize Firebase & Data
         mDatabase = FirebaseDatabase.getInstance().getReference();
 
-        currentMessCode = getIntent().getStringExtra("messCode");
-        currentUserRole = getIntent().getStringExtra("role");
-
-        groceryList = new ArrayList<>();
-        otherList = new ArrayList<>();
+        currentMessCode = Session.messCode(this);
+        currentUserRole = Session.role(this);
 
-        groceryAdapter = new ExpenseAdapter(this, groceryList);
-        otherAdapter = new ExpenseAdapter(this, otherList);
+        groceryAdapter = new ExpenseAdapter();
+        otherAdapter = new ExpenseAdapter();
 
-        lvGrocery.setAdapter(groceryAdapter);
-        lvOther.setAdapter(otherAdapter);
+        // Each adapter keeps its own id space, so headers and rows never clash
+        ConcatAdapter.Config config = new ConcatAdapter.Config.Builder()
+                .setStableIdMode(ConcatAdapter.Config.StableIdMode.ISOLATED_STABLE_IDS)
+                .build();
+        layoutManager = new LinearLayoutManager(this);
+        rvExpenses.setLayoutManager(layoutManager);
+        rvExpenses.setHasFixedSize(true);
+        rvExpenses.setAdapter(new ConcatAdapter(config,
+                new SectionHeaderAdapter("Grocery Items"), groceryAdapter,
+                new SectionHeaderAdapter("Other Expenses"), otherAdapter));
 
         // 3. Permission Logic (Manager vs Member)
         setupPermissions();
 
         // 4. Load Data
         if (currentMessCode != null) {
+            store = MessDataStore.get(currentMessCode);
+            attachLoadMore();
             loadBills();
+            loadBalance();
             loadExpenses();
         } else {
             Toast.makeText(this, "Error: Mess Code Missing", Toast.LENGTH_SHORT).show();
@@ -92,6 +128,15 @@ public class Expense_List extends AppCompatActivity {
             intent.putExtra("role", currentUserRole);
             startActivity(intent);
         });
+
+        btnAddDeposit.setOnClickListener(v -> startActivity(new Intent(Expense_List.this, Add_Deposit.class)));
+
+        btnSettlement.setOnClickListener(v -> {
+            Intent intent = new Intent(Expense_List.this, Month_Settlement.class);
+            intent.putExtra("messCode", currentMessCode);
+            intent.putExtra("role", currentUserRole);
+            startActivity(intent);
+        });
     }
 
     // --- PERMISSION & EDIT LOGIC ---
@@ -99,119 +144,210 @@ public class Expense_List extends AppCompatActivity {
         boolean isManager = "Manager".equalsIgnoreCase(currentUserRole);
 
         // Enable editing ONLY if Manager
-        etBillRent.setEnabled(isManager);
-        etBillElectric.setEnabled(isManager);
-        etBillGas.setEnabled(isManager);
-        etBillWater.setEnabled(isManager);
-        etBillUtility.setEnabled(isManager);
-        etBillInternet.setEnabled(isManager);
-
-        // If Manager, attach listeners to save changes to DB automatically
+        for (EditText field : billFields) field.setEnabled(isManager);
+        btnAddDeposit.setVisibility(isManager ? View.VISIBLE : View.GONE);
+
+        // Manager edits are collected and saved together with the Save Bills button
         if (isManager) {
-            attachSaveListener(etBillRent, "Home Rent");
-            attachSaveListener(etBillElectric, "Electric Bill");
-            attachSaveListener(etBillGas, "Gas Bill");
-            attachSaveListener(etBillWater, "Water Bill");
-            attachSaveListener(etBillUtility, "Utility");
-            attachSaveListener(etBillInternet, "Internet");
+            containerBillsSave.setVisibility(View.VISIBLE);
+            for (EditText field : billFields) field.addTextChangedListener(billWatcher);
+            btnSaveBills.setOnClickListener(v -> saveBills());
         }
     }
 
-    private void attachSaveListener(EditText editText, String billKey) {
-        // Saves data when the user finishes typing and clicks away (loses focus)
-        editText.setOnFocusChangeListener((v, hasFocus) -> {
-            if (!hasFocus) {
-                String valStr = editText.getText().toString().trim();
-                if (!valStr.isEmpty()) {
-                    try {
-                        double amount = Double.parseDouble(valStr);
-                        // Save to Firebase: mess/{code}/bills/{billKey}
-                        mDatabase.child("mess").child(currentMessCode).child("bills").child(billKey).setValue(amount);
-                    } catch (NumberFormatException e) {
-                        editText.setError("Invalid Number");
-                    }
-                }
+    private final TextWatcher billWatcher = new TextWatcher() {
+        @Override
+        public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+        @Override
+        public void onTextChanged(CharSequence s, int start, int before, int count) {}
+        @Override
+        public void afterTextChanged(Editable s) {
+            updateBillsStatus();
+        }
+    };
+
+    // Bills whose field differs from what is stored for this month (all of them if the
+    // month has not been saved yet). Null if a field is not a number.
+    private Map<String, Double> dirtyBills() {
+        Map<String, Double> dirty = new LinkedHashMap<>();
+        for (int i = 0; i < billFields.length; i++) {
+            String text = billFields[i].getText().toString().trim();
+            double amount;
+            try {
+                amount = text.isEmpty() ? 0 : Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                billFields[i].setError("Invalid Number");
+                return null;
+            }
+            if (amount < 0) {
+                billFields[i].setError("Invalid Number");
+                return null;
             }
+            Double stored = storedBills.get(Bills.KEYS[i]);
+            if (!billsMonthSaved || stored == null || stored != amount) dirty.put(Bills.KEYS[i], amount);
+        }
+        return dirty;
+    }
+
+    private void updateBillsStatus() {
+        Map<String, Double> dirty = dirtyBills();
+        if (dirty == null) {
+            tvBillsStatus.setText("Fix the highlighted bill");
+            btnSaveBills.setEnabled(false);
+        } else if (!billsMonthSaved) {
+            tvBillsStatus.setText(carriedFrom == null ? "Not saved for this month yet" : "Carried from " + carriedFrom + ", save to keep");
+            btnSaveBills.setEnabled(true);
+        } else {
+            int n = dirty.size();
+            tvBillsStatus.setText(n == 0 ? "Saved" : n + (n == 1 ? " bill changed" : " bills changed"));
+            btnSaveBills.setEnabled(n > 0);
+        }
+    }
+
+    // All changed bills of the month + the ledger difference in one atomic write
+    private void saveBills() {
+        Map<String, Double> dirty = dirtyBills();
+        if (dirty == null || dirty.isEmpty() && billsMonthSaved) return;
+
+        Map<String, Double> old = new LinkedHashMap<>();
+        for (String key : dirty.keySet()) {
+            Double stored = storedBills.get(key);
+            old.put(key, stored == null ? 0 : stored);
+        }
+        Map<String, Object> updates = new HashMap<>();
+        Bills.putChanges(updates, billsMonth, old, dirty);
+
+        Context app = getApplicationContext();
+        OutboxSync.writeMess(currentMessCode, updates, ok -> {
+            if (!ok) Toast.makeText(app, "Bills could not be synced", Toast.LENGTH_LONG).show();
         });
+        // Queued durably: from here on these are the month's values
+        storedBills.putAll(dirty);
+        billsMonthSaved = true;
+        carriedFrom = null;
+        updateBillsStatus();
+        Toast.makeText(this, "Bills saved for " + DateKeys.displayMonth(billsMonth), Toast.LENGTH_SHORT).show();
     }
 
     // --- DATA LOADING LOGIC ---
+    // Everything below comes from the shared MessDataStore, so coming back to this screen
+    // shows the last known bills/balance/expenses at once and only changes are fetched.
+    // Bills read only this month's node; a month nobody saved yet starts from the
+    // latest earlier month (Bills.carryForward).
     private void loadBills() {
-        mDatabase.child("mess").child(currentMessCode).child("bills")
-                .addValueEventListener(new ValueEventListener() {
+        tvBillsTitle.setText(" Utility Bills - " + DateKeys.displayMonth(billsMonth));
+        store.monthBills(billsMonth).observe(this, snapshot -> {
+            if (snapshot.exists()) {
+                Map<String, Double> amounts = Bills.parse(snapshot);
+                showBills(amounts, amounts, true, null);
+            } else {
+                Bills.carryForward(store.messRef(), billsMonth, (amounts, fromMonth) -> {
+                    // Carried-forward bills aren't in this month's ledger yet, so saving books
+                    // them in full
+                    if (!Bills.LEGACY_NODE.equals(fromMonth)) {
+                        String from = fromMonth == null ? null : DateKeys.displayMonth(fromMonth);
+                        showBills(amounts, new LinkedHashMap<>(), false, from);
+                        return;
+                    }
+                    // ...except the old flat bills in the month LedgerMigrator booked them in
+                    loadLegacyBooking(amounts);
+                });
+            }
+        });
+    }
+
+    private void loadLegacyBooking(Map<String, Double> amounts) {
+        String month = billsMonth;
+        store.messRef().child("schema").child(LedgerMigrator.LEGACY_BILLS)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        if (snapshot.exists()) {
-                            // Helper to safely get string, default to "0"
-                            updateBillField(etBillRent, snapshot.child("Home Rent"));
-                            updateBillField(etBillElectric, snapshot.child("Electric Bill"));
-                            updateBillField(etBillGas, snapshot.child("Gas Bill"));
-                            updateBillField(etBillWater, snapshot.child("Water Bill"));
-                            updateBillField(etBillUtility, snapshot.child("Utility"));
-                            updateBillField(etBillInternet, snapshot.child("Internet"));
-
-                            calculateTotalBalance();
-                        }
+                        boolean booked = month.equals(snapshot.getValue(String.class));
+                        showBills(amounts, booked ? amounts : new LinkedHashMap<>(), false, "last bills");
                     }
                     @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Toast.makeText(Expense_List.this, "Failed to load bills", Toast.LENGTH_SHORT).show();
+                    }
                 });
     }
 
-    private void updateBillField(EditText et, DataSnapshot snap) {
-        // Only update text if the user is NOT currently typing (to avoid cursor jumping)
-        if (!et.hasFocus()) {
-            Object val = snap.getValue();
-            et.setText(val == null ? "0" : String.valueOf(val));
+    // shown: values for the fields; stored: what the ledger already counts for this month
+    private void showBills(Map<String, Double> shown, Map<String, Double> stored, boolean monthSaved, String from) {
+        shown = new HashMap<>(shown);
+        storedBills.clear();
+        storedBills.putAll(stored);
+        billsMonthSaved = monthSaved;
+        carriedFrom = from;
+        // A save still waiting in the outbox is newer than what the server sent
+        for (String key : Bills.KEYS) {
+            String path = Bills.NODE + "/" + billsMonth + "/" + key;
+            if (OutboxSync.hasPendingMess(currentMessCode, path)) {
+                Object pending = OutboxSync.pendingMessValue(currentMessCode, path);
+                double amount = pending instanceof Number ? ((Number) pending).doubleValue() : 0;
+                storedBills.put(key, amount);
+                shown.put(key, amount);
+                billsMonthSaved = true;
+                carriedFrom = null;
+            }
         }
+        for (int i = 0; i < billFields.length; i++) {
+            // Only update text if the user is NOT currently typing (to avoid cursor jumping)
+            if (billFields[i].hasFocus()) continue;
+            Double amount = shown.get(Bills.KEYS[i]);
+            billFields[i].setText(MealHistoryAdapter.formatValue(amount == null ? 0 : amount));
+        }
+        updateBillsStatus();
     }
 
+    // The feed is newest first and already merged with live changes; just split it by type.
+    // New lists every time: the adapters diff them in the background against what is shown.
     private void loadExpenses() {
-        mDatabase.child("mess").child(currentMessCode).child("expenses")
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        groceryList.clear();
-                        otherList.clear();
-                        double totalExpenseSum = 0;
-
-                        for (DataSnapshot data : snapshot.getChildren()) {
-                            ExpenseItem expense = data.getValue(ExpenseItem.class);
-                            if (expense != null) {
-                                totalExpenseSum += expense.amount;
-
-                                if ("Grocery".equalsIgnoreCase(expense.type)) {
-                                    groceryList.add(expense);
-                                } else {
-                                    otherList.add(expense);
-                                }
-                            }
-                        }
-                        groceryAdapter.notifyDataSetChanged();
-                        otherAdapter.notifyDataSetChanged();
-                    }
+        store.expenses().observe(this, expenses -> {
+            ArrayList<ExpenseItem> grocery = new ArrayList<>();
+            ArrayList<ExpenseItem> other = new ArrayList<>();
+            for (ExpenseItem expense : expenses) {
+                if ("Grocery".equalsIgnoreCase(expense.type)) grocery.add(expense);
+                else other.add(expense);
+            }
+            groceryAdapter.submitList(grocery);
+            otherAdapter.submitList(other);
+        });
+        store.expenses().errors().observe(this, message -> {
+            if (message != null) Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        });
+    }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Toast.makeText(Expense_List.this, "Failed to load expenses", Toast.LENGTH_SHORT).show();
-                    }
-                });
+    private void attachLoadMore() {
+        rvExpenses.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int total = layoutManager.getItemCount();
+                if (total > 0 && layoutManager.findLastVisibleItemPosition() >= total - LOAD_MORE_THRESHOLD) {
+                    store.expenses().loadMore();
+                }
+            }
+        });
     }
 
-    private void calculateTotalBalance() {
-        mDatabase.child("mess").child(currentMessCode).child("balance")
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        Object balance = snapshot.getValue();
-                        if (balance != null) {
-                            tvBalance.setText("TK. " + balance);
-                        } else {
-                            tvBalance.setText("TK. 0");
-                        }
-                    }
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
-                });
+    private void loadBalance() {
+        // mess/{code}/ledger/balance: one number kept current by every write
+        store.balance().observe(this, snapshot -> {
+            Double balance = snapshot.getValue(Double.class);
+            tvBalance.setText("TK. " + (balance == null ? 0 : Math.round(balance)));
+        });
+
+        // This month's slice of the ledger: a handful of numbers, no expense scan
+        store.ledgerMonth(DateKeys.currentMonth()).observe(this, snapshot -> {
+            StringBuilder text = new StringBuilder();
+            for (String category : new String[]{"Grocery", "Other", Ledger.BILLS}) {
+                Double amount = snapshot.child(category).getValue(Double.class);
+                if (amount == null || amount == 0) continue;
+                text.append(text.length() == 0 ? "This month: " : " | ")
+                        .append(category).append(" TK. ").append(Math.round(amount));
+            }
+            tvMonthBreakdown.setText(text.length() == 0 ? "This month: nothing spent yet" : text.toString());
+        });
     }
-}
\ No newline at end of file
+}
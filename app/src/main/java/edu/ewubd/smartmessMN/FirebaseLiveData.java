@@ -0,0 +1,67 @@
+package edu.ewubd.smartmessMN;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+// LiveData over one Firebase location.
+// The listener is attached (through ListenerRegistry) while someone is observing and kept
+// for LINGER_MS after the last observer leaves, so going from one screen to the next
+// does not drop and re-open the same listen. The last value stays in memory either way,
+// which is what lets a screen render instantly when it comes back.
+public class FirebaseLiveData<T> extends LiveData<T> {
+
+    public interface Parser<T> {
+        T parse(DataSnapshot snapshot);
+    }
+
+    private static final long LINGER_MS = 30 * 1000;
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final String key;
+    private final Query query;
+    private final Parser<T> parser;
+    private ListenerRegistry.Subscription subscription;
+
+    private final ValueEventListener listener = new ValueEventListener() {
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            setValue(parser.parse(snapshot));
+        }
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {}
+    };
+
+    private final Runnable detach = () -> {
+        if (subscription != null) {
+            subscription.remove();
+            subscription = null;
+        }
+    };
+
+    public FirebaseLiveData(String key, Query query, Parser<T> parser) {
+        this.key = key;
+        this.query = query;
+        this.parser = parser;
+    }
+
+    @Override
+    protected void onActive() {
+        handler.removeCallbacks(detach);
+        if (subscription == null) {
+            subscription = ListenerRegistry.get().observe(key, query, listener);
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        handler.postDelayed(detach, LINGER_MS);
+    }
+}
@@ -0,0 +1,91 @@
+package edu.ewubd.smartmessMN;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Objects;
+
+// Cards of activity_row_inactive_member.xml over the roster archive
+public class InactiveMemberAdapter extends StableListAdapter<MemberLifecycle.Archived, InactiveMemberAdapter.ViewHolder> {
+
+    public interface OnReactivateListener {
+        void onReactivate(MemberLifecycle.Archived member);
+    }
+
+    private final OnReactivateListener listener; // null: read-only (members)
+
+    public InactiveMemberAdapter(OnReactivateListener listener) {
+        super(DIFF);
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.activity_row_inactive_member, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        MemberLifecycle.Archived member = getItem(position);
+        holder.tvName.setText(member.name);
+        holder.tvRole.setText(member.role == null ? "Member" : member.role);
+        holder.tvJoined.setText("Joined: " + date(member.joined));
+        holder.tvLeft.setText("Left: " + date(member.left));
+
+        boolean hasReason = member.reason != null && !member.reason.isEmpty();
+        holder.reasonBox.setVisibility(hasReason ? View.VISIBLE : View.GONE);
+        if (hasReason) holder.tvReason.setText("Reason: " + member.reason);
+
+        holder.btnReactivate.setVisibility(listener == null ? View.GONE : View.VISIBLE);
+        holder.btnReactivate.setOnClickListener(v -> listener.onReactivate(member));
+    }
+
+    private static String date(String key) {
+        if (key == null) return "-";
+        return DateKeys.isKey(key) ? DateKeys.display(key) : key;
+    }
+
+    @Override
+    protected String keyOf(MemberLifecycle.Archived member) {
+        return member.uid;
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvName, tvRole, tvJoined, tvLeft, tvReason;
+        final View reasonBox;
+        final Button btnReactivate;
+
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.tv_name);
+            tvRole = itemView.findViewById(R.id.tv_email); // Roster entries carry no email
+            tvJoined = itemView.findViewById(R.id.tv_join_date);
+            tvLeft = itemView.findViewById(R.id.tv_deact_date);
+            tvReason = itemView.findViewById(R.id.tv_reason);
+            reasonBox = itemView.findViewById(R.id.reason_box);
+            btnReactivate = itemView.findViewById(R.id.btn_reactivate);
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<MemberLifecycle.Archived> DIFF = new DiffUtil.ItemCallback<MemberLifecycle.Archived>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MemberLifecycle.Archived a, @NonNull MemberLifecycle.Archived b) {
+            return a.uid.equals(b.uid);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull MemberLifecycle.Archived a, @NonNull MemberLifecycle.Archived b) {
+            return Objects.equals(a.name, b.name) && Objects.equals(a.role, b.role) && Objects.equals(a.joined, b.joined)
+                    && Objects.equals(a.left, b.left) && Objects.equals(a.reason, b.reason);
+        }
+    };
+}
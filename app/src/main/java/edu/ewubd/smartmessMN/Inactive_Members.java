@@ -0,0 +1,93 @@
+package edu.ewubd.smartmessMN;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Deactivated members (mess/{code}/rosterArchive). The manager can bring one back,
+// which is a single move back into the roster (see MemberLifecycle).
+public class Inactive_Members extends AppCompatActivity {
+
+    // Views
+    private RecyclerView rvInactiveMembers;
+    private TextView tvEmpty;
+
+    // Data
+    private String currentMessCode;
+    private InactiveMemberAdapter adapter;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.inactive_members);
+
+        currentMessCode = Session.messCode(this);
+        if (currentMessCode == null) {
+            Toast.makeText(this, "Mess Code Missing", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        rvInactiveMembers = findViewById(R.id.rvInactiveMembers);
+        tvEmpty = findViewById(R.id.tv_inactive_empty);
+
+        // Only the manager gets the Reactivate button
+        boolean isManager = "Manager".equalsIgnoreCase(Session.role(this));
+        adapter = new InactiveMemberAdapter(isManager ? this::confirmReactivate : null);
+        rvInactiveMembers.setLayoutManager(new LinearLayoutManager(this));
+        rvInactiveMembers.setAdapter(adapter);
+
+        MessDataStore.get(currentMessCode).rosterArchive().observe(this, members -> {
+            adapter.submitList(members);
+            tvEmpty.setVisibility(members.isEmpty() ? View.VISIBLE : View.GONE);
+        });
+    }
+
+    private void confirmReactivate(MemberLifecycle.Archived member) {
+        View view = getLayoutInflater().inflate(R.layout.reactive_popup, null);
+        AlertDialog dialog = new AlertDialog.Builder(this).setView(view).create();
+
+        ((TextView) view.findViewById(R.id.dlg_message))
+                .setText("Are you sure you want to reactivate " + member.name + "?");
+        Button btnCancel = view.findViewById(R.id.dlg_cancel);
+        Button btnReactivate = view.findViewById(R.id.dlg_reactivate);
+        btnCancel.setOnClickListener(v -> dialog.dismiss());
+        btnReactivate.setOnClickListener(v -> {
+            dialog.dismiss();
+            reactivate(member);
+        });
+        dialog.show();
+    }
+
+    private void reactivate(MemberLifecycle.Archived member) {
+        if (!MemberLifecycle.beginMove(member.uid)) {
+            Toast.makeText(this, member.name + " is already being reactivated", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Map<String, Object> updates = new HashMap<>();
+        MemberLifecycle.putReactivate(updates, member);
+
+        Context app = getApplicationContext();
+        String messCode = currentMessCode;
+        OutboxSync.writeMess(currentMessCode, updates, ok -> {
+            MemberLifecycle.endMove(member.uid);
+            if (ok) RosterCache.invalidate(messCode);
+            Toast.makeText(app, ok ? member.name + " is active again"
+                    : "Reactivating " + member.name + " could not be synced", ok ? Toast.LENGTH_SHORT : Toast.LENGTH_LONG).show();
+        });
+        if (!OutboxSync.get().isConnected()) {
+            Toast.makeText(this, "Reactivating " + member.name + ", will sync when online", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
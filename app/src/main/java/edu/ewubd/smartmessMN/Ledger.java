@@ -0,0 +1,45 @@
+package edu.ewubd.smartmessMN;
+
+import com.google.firebase.database.ServerValue;
+
+import java.util.Map;
+
+// Running money ledger of a mess, kept up to date by the writes themselves.
+// Path: mess/{code}/ledger
+//   balance                       deposits - everything spent
+//   categories/{category}         all-time sum per category
+//   months/{yyyy-MM}/{category}   same, per month
+//   months/{yyyy-MM}/net          what the month added to the balance
+// Categories are the expense types (Grocery, Other), Bills and Deposits.
+// Every change goes in as server-side increments of the delta, in the same multi-path
+// update as the record it comes from, so the ledger and the records can't drift and
+// the balance card is one small read however long the history is.
+public class Ledger {
+
+    public static final String NODE = "ledger";
+    public static final String BILLS = "Bills";
+    public static final String DEPOSITS = "Deposits";
+
+    // Money spent (expense saved, bill raised). A negative amount undoes it.
+    public static void putSpend(Map<String, Object> updates, String monthKey, String category, double amount) {
+        put(updates, monthKey, category, amount, -amount);
+    }
+
+    // Money paid into the mess
+    public static void putDeposit(Map<String, Object> updates, String monthKey, double amount) {
+        put(updates, monthKey, DEPOSITS, amount, amount);
+    }
+
+    // A bill edited from oldAmount to newAmount only moves the ledger by the difference
+    public static void putBillChange(Map<String, Object> updates, String monthKey, double oldAmount, double newAmount) {
+        putSpend(updates, monthKey, BILLS, newAmount - oldAmount);
+    }
+
+    private static void put(Map<String, Object> updates, String monthKey, String category, double amount, double net) {
+        if (amount == 0) return;
+        updates.put(NODE + "/balance", ServerValue.increment(net));
+        updates.put(NODE + "/categories/" + category, ServerValue.increment(amount));
+        updates.put(NODE + "/months/" + monthKey + "/" + category, ServerValue.increment(amount));
+        updates.put(NODE + "/months/" + monthKey + "/net", ServerValue.increment(net));
+    }
+}
@@ -0,0 +1,266 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// One-time build of the ledger (see Ledger) for messes that have history from before it.
+// Expenses and deposits are read a page at a time and summed in memory, bills are booked
+// in their month (see readBills), and the finished ledger goes in with a transaction that:
+//   - keeps every increment that arrived while the history was being read (the ledger is
+//     read once before the scan, and whatever it moved since is added on top), and
+//   - marks the ledger as built (ledger/built), so a second phone running the same
+//     migration backs off instead of writing it again.
+// After that the ledger is only ever moved by increments.
+public class LedgerMigrator {
+
+    private static final String TAG = "LedgerMigrator";
+    static final int SCHEMA_VERSION = 1;
+    private static final int PAGE_SIZE = 50;
+    // schema/{LEGACY_BILLS}: the month the old flat bills were booked in, if they were.
+    // Only that month's ledger has them; for any later month they are just a starting point.
+    static final String LEGACY_BILLS = "ledgerLegacyBills";
+    static final String BUILT = "built";
+
+    private final DatabaseReference messRef;
+    private final DatabaseReference schemaRef;
+
+    private final Map<String, Double> categories = new HashMap<>();
+    private final Map<String, Map<String, Double>> months = new HashMap<>();
+    private double balance = 0;
+    private String legacyBillsMonth;
+    private Object baseline; // The ledger as it was before the scan
+
+    public LedgerMigrator(MessDataStore store) {
+        this.messRef = store.messRef();
+        this.schemaRef = messRef.child("schema").child(Ledger.NODE);
+    }
+
+    public void runIfNeeded() {
+        schemaRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long version = snapshot.getValue(Long.class);
+                if (version == null || version < SCHEMA_VERSION) {
+                    readBaseline();
+                }
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Schema check failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private void readBaseline() {
+        messRef.child(Ledger.NODE).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                baseline = snapshot.getValue();
+                if (built(baseline)) markSchema(); // Built before, the schema mark didn't make it
+                else readExpenses(null);
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Ledger read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private void readExpenses(String lastKey) {
+        page("expenses", lastKey).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                String nextKey = null;
+                long count = 0;
+                for (DataSnapshot expense : snapshot.getChildren()) {
+                    nextKey = expense.getKey();
+                    count++;
+                    Double amount = expense.child("amount").getValue(Double.class);
+                    String date = DateKeys.normalize(expense.child("date").getValue(String.class), DateKeys.LEGACY_EXPENSE);
+                    if (amount == null || date == null) continue;
+                    String type = "Grocery".equalsIgnoreCase(expense.child("type").getValue(String.class)) ? "Grocery" : "Other";
+                    book(DateKeys.month(date), type, amount, -amount);
+                }
+                if (count < PAGE_SIZE) readDeposits(null);
+                else readExpenses(nextKey);
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Expense read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    // Deposits are in the baseline like everything else, so they have to be in the
+    // rebuilt history too or merge() would take them back out
+    private void readDeposits(String lastKey) {
+        page(Deposits.NODE, lastKey).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                String nextKey = null;
+                long count = 0;
+                for (DataSnapshot deposit : snapshot.getChildren()) {
+                    nextKey = deposit.getKey();
+                    count++;
+                    Double amount = deposit.child("amount").getValue(Double.class);
+                    String date = deposit.child("date").getValue(String.class);
+                    if (amount == null || date == null || !DateKeys.isKey(date)) continue;
+                    book(DateKeys.month(date), Ledger.DEPOSITS, amount, amount);
+                }
+                if (count < PAGE_SIZE) readBills();
+                else readDeposits(nextKey);
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Deposit read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private Query page(String node, String lastKey) {
+        Query page = messRef.child(node).orderByKey();
+        if (lastKey != null) page = page.startAfter(lastKey);
+        return page.limitToFirst(PAGE_SIZE);
+    }
+
+    // Every saved month of bills in its own month. The old flat node stands in for the
+    // current month only while that month has not been saved (same rule as Expense_List).
+    private void readBills() {
+        String current = DateKeys.currentMonth();
+        messRef.child(Bills.NODE).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                for (DataSnapshot month : snapshot.getChildren()) {
+                    bookBills(month.getKey(), Bills.parse(month));
+                }
+                if (snapshot.hasChild(current)) {
+                    write();
+                    return;
+                }
+                messRef.child(Bills.LEGACY_NODE).addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot legacy) {
+                        Map<String, Double> amounts = Bills.parse(legacy);
+                        if (Bills.total(amounts) != 0) legacyBillsMonth = current;
+                        bookBills(current, amounts);
+                        write();
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Log.w(TAG, "Bills read failed: " + error.getMessage());
+                    }
+                });
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Bills read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private void bookBills(String monthKey, Map<String, Double> amounts) {
+        double total = Bills.total(amounts);
+        if (total != 0) book(monthKey, Ledger.BILLS, total, -total);
+    }
+
+    private void book(String monthKey, String category, double amount, double net) {
+        balance += net;
+        add(categories, category, amount);
+        Map<String, Double> month = months.get(monthKey);
+        if (month == null) {
+            month = new HashMap<>();
+            months.put(monthKey, month);
+        }
+        add(month, category, amount);
+        add(month, "net", net);
+    }
+
+    private static void add(Map<String, Double> sums, String key, double amount) {
+        Double old = sums.get(key);
+        sums.put(key, (old == null ? 0 : old) + amount);
+    }
+
+    private void write() {
+        Map<String, Object> built = new HashMap<>();
+        built.put("balance", balance);
+        built.put("categories", categories);
+        built.put("months", months);
+
+        messRef.child(Ledger.NODE).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                Object current = currentData.getValue();
+                if (built(current)) {
+                    return Transaction.abort(); // Another phone built it first
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> ledger = (Map<String, Object>) merge(built, current, baseline);
+                ledger.put(BUILT, SCHEMA_VERSION);
+                currentData.setValue(ledger);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    Log.w(TAG, "Ledger build failed: " + error.getMessage());
+                } else if (committed) {
+                    markSchema();
+                }
+            }
+        });
+    }
+
+    private void markSchema() {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("schema/" + Ledger.NODE, SCHEMA_VERSION);
+        if (legacyBillsMonth != null) updates.put("schema/" + LEGACY_BILLS, legacyBillsMonth);
+        messRef.updateChildren(updates)
+                .addOnFailureListener(e -> Log.w(TAG, "Ledger schema mark failed", e));
+    }
+
+    private static boolean built(Object ledger) {
+        return ledger instanceof Map && ((Map<?, ?>) ledger).get(BUILT) != null;
+    }
+
+    // built + (current - baseline), leaf by leaf: the rebuilt history plus whatever the
+    // increments moved since the baseline was read
+    static Object merge(Object built, Object current, Object baseline) {
+        if (!(built instanceof Map) && !(current instanceof Map) && !(baseline instanceof Map)) {
+            return number(built) + number(current) - number(baseline);
+        }
+        Set<Object> keys = new HashSet<>();
+        for (Object node : new Object[]{built, current, baseline}) {
+            if (node instanceof Map) keys.addAll(((Map<?, ?>) node).keySet());
+        }
+        keys.remove(BUILT);
+        Map<String, Object> merged = new HashMap<>();
+        for (Object key : keys) {
+            merged.put(String.valueOf(key), merge(child(built, key), child(current, key), child(baseline, key)));
+        }
+        return merged;
+    }
+
+    private static Object child(Object node, Object key) {
+        return node instanceof Map ? ((Map<?, ?>) node).get(key) : null;
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+}
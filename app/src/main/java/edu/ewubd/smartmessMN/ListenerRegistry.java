@@ -0,0 +1,274 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One place that owns every long-lived Firebase listener in the app.
+// - Value listeners are shared per key (normally the database path): the first observer
+//   attaches one Firebase listener, later observers reuse it and get the last snapshot
+//   right away, the last one to leave detaches it.
+// - bind(...) ties an observer to an Activity: attached in onStart, detached in onStop,
+//   forgotten in onDestroy. Nothing keeps listening behind a screen that is not visible.
+// - activeListenerCount() / bytesReceived() are there for diagnostics. Byte counting
+//   rebuilds every received value, so it only runs in debuggable builds (SmartMessApp).
+// All calls are expected on the main thread (where Firebase delivers events).
+public class ListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+    private static final ListenerRegistry INSTANCE = new ListenerRegistry();
+
+    public static ListenerRegistry get() {
+        return INSTANCE;
+    }
+
+    // Handle returned to whoever subscribed; remove() is idempotent
+    public interface Subscription {
+        void remove();
+    }
+
+    private final Map<String, SharedValue> valueListeners = new HashMap<>();
+    private int childListeners = 0;
+    private long bytesReceived = 0;
+    private boolean countBytes = false;
+
+    private ListenerRegistry() {}
+
+    // --- VALUE LISTENERS (shared, ref-counted) ---
+
+    public Subscription observe(String key, Query query, ValueEventListener observer) {
+        SharedValue shared = valueListeners.get(key);
+        if (shared == null) {
+            shared = new SharedValue(key, query);
+            valueListeners.put(key, shared);
+            query.addValueEventListener(shared);
+        }
+        shared.observers.add(observer);
+        if (shared.last != null) {
+            observer.onDataChange(shared.last);
+        }
+        SharedValue finalShared = shared;
+        return new Subscription() {
+            private boolean removed;
+
+            @Override
+            public void remove() {
+                if (removed) return;
+                removed = true;
+                finalShared.observers.remove(observer);
+                if (finalShared.observers.isEmpty()) {
+                    finalShared.query.removeEventListener(finalShared);
+                    // A cancelled one may already have been replaced under the same key
+                    if (valueListeners.get(finalShared.key) == finalShared) valueListeners.remove(finalShared.key);
+                }
+            }
+        };
+    }
+
+    public Subscription observe(DatabaseReference ref, ValueEventListener observer) {
+        return observe(ref.toString(), ref, observer);
+    }
+
+    public void bind(LifecycleOwner owner, String key, Query query, ValueEventListener observer) {
+        owner.getLifecycle().addObserver(new Binding() {
+            @Override
+            Subscription subscribe() {
+                return observe(key, query, observer);
+            }
+        });
+    }
+
+    public void bind(LifecycleOwner owner, DatabaseReference ref, ValueEventListener observer) {
+        bind(owner, ref.toString(), ref, observer);
+    }
+
+    // --- CHILD LISTENERS (one per caller, lifecycle bound) ---
+    // Child events cannot be replayed to a late observer, so these are not shared.
+    // After onStop/onStart the listener is attached again and current children are
+    // delivered again through onChildAdded, so callers should treat adds as upserts.
+
+    public Subscription observeChildren(Query query, ChildEventListener listener) {
+        ChildEventListener counting = new CountingChildListener(listener);
+        query.addChildEventListener(counting);
+        childListeners++;
+        return new Subscription() {
+            private boolean removed;
+
+            @Override
+            public void remove() {
+                if (removed) return;
+                removed = true;
+                query.removeEventListener(counting);
+                childListeners--;
+            }
+        };
+    }
+
+    public void bindChildren(LifecycleOwner owner, Query query, ChildEventListener listener) {
+        owner.getLifecycle().addObserver(new Binding() {
+            @Override
+            Subscription subscribe() {
+                return observeChildren(query, listener);
+            }
+        });
+    }
+
+    // --- DIAGNOSTICS ---
+
+    public int activeListenerCount() {
+        return valueListeners.size() + childListeners;
+    }
+
+    public void setByteCounting(boolean enabled) {
+        countBytes = enabled;
+    }
+
+    // Approximate: size of the received values when written out as JSON; 0 unless counting is on
+    public long bytesReceived() {
+        return bytesReceived;
+    }
+
+    public Map<String, Integer> observerCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (SharedValue shared : valueListeners.values()) {
+            counts.put(shared.key, shared.observers.size());
+        }
+        return counts;
+    }
+
+    // Sizing needs snapshot.getValue(), a second copy of the whole tree, and would queue
+    // on the parser thread in front of the list mapping, so release builds skip it
+    private void account(DataSnapshot snapshot) {
+        if (!countBytes) return;
+        SnapshotMappers.mapAsync(() -> estimateSize(snapshot.getValue()), size -> bytesReceived += size);
+    }
+
+    static long estimateSize(Object value) {
+        if (value == null) return 4;
+        if (value instanceof String) return ((String) value).length() + 2;
+        if (value instanceof Map) {
+            long size = 2;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                size += String.valueOf(e.getKey()).length() + 4 + estimateSize(e.getValue());
+            }
+            return size;
+        }
+        if (value instanceof List) {
+            long size = 2;
+            for (Object o : (List<?>) value) size += estimateSize(o) + 1;
+            return size;
+        }
+        return String.valueOf(value).length();
+    }
+
+    // --- INTERNALS ---
+
+    private class SharedValue implements ValueEventListener {
+        final String key;
+        final Query query;
+        final List<ValueEventListener> observers = new ArrayList<>();
+        DataSnapshot last;
+
+        SharedValue(String key, Query query) {
+            this.key = key;
+            this.query = query;
+        }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            last = snapshot;
+            account(snapshot);
+            // Copy: an observer may unsubscribe from inside its callback
+            for (ValueEventListener observer : new ArrayList<>(observers)) {
+                observer.onDataChange(snapshot);
+            }
+        }
+
+        // Firebase has already dropped the listener, so it leaves the registry too: the next
+        // observe() of this key attaches a fresh one instead of joining a dead one
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.w(TAG, "Listener cancelled for " + key + ": " + error.getMessage());
+            if (valueListeners.get(key) == this) valueListeners.remove(key);
+            last = null;
+            for (ValueEventListener observer : new ArrayList<>(observers)) {
+                observer.onCancelled(error);
+            }
+        }
+    }
+
+    private class CountingChildListener implements ChildEventListener {
+        private final ChildEventListener delegate;
+
+        CountingChildListener(ChildEventListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+            account(snapshot);
+            delegate.onChildAdded(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+            account(snapshot);
+            delegate.onChildChanged(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            delegate.onChildRemoved(snapshot);
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+            delegate.onChildMoved(snapshot, previousChildName);
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            delegate.onCancelled(error);
+        }
+    }
+
+    // Attaches in onStart, detaches in onStop, drops itself in onDestroy
+    private abstract static class Binding implements DefaultLifecycleObserver {
+        private Subscription subscription;
+
+        abstract Subscription subscribe();
+
+        @Override
+        public void onStart(@NonNull LifecycleOwner owner) {
+            if (subscription == null) subscription = subscribe();
+        }
+
+        @Override
+        public void onStop(@NonNull LifecycleOwner owner) {
+            if (subscription != null) {
+                subscription.remove();
+                subscription = null;
+            }
+        }
+
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            onStop(owner);
+            owner.getLifecycle().removeObserver(this);
+        }
+    }
+}
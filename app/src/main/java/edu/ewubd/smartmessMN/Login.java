@@ -71,10 +71,17 @@ public class Login extends AppCompatActivity {
     @Override
     protected void onStart() {
         super.onStart();
-        // If user is already logged in from a previous session, check DB immediately
+        // If user is already logged in from a previous session, go straight to the dashboard
+        // from the saved session (MainActivity re-checks the profile in the background).
+        // Only a missing session needs the DB round trip.
         FirebaseUser currentUser = mAuth.getCurrentUser();
         if (currentUser != null) {
-            checkUserDatabase(currentUser.getUid());
+            Session session = Session.load(this, currentUser.getUid());
+            if (session != null) {
+                updateUI(session.role, session.messCode);
+            } else {
+                checkUserDatabase(currentUser.getUid());
+            }
         }
     }
 
@@ -124,6 +131,7 @@ public class Login extends AppCompatActivity {
                     // User exists! Retrieve their data.
                     String role = snapshot.child("role").getValue(String.class);
                     String messCode = snapshot.child("messCode").getValue(String.class);
+                    Session.save(Login.this, snapshot);
 
                     // Redirect to Main Activity with this info
                     updateUI(role, messCode);
@@ -1,7 +1,10 @@
 package edu.ewubd.smartmessMN;
 
 import android.content.Intent;
+import android.graphics.Color;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -10,25 +13,18 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.android.gms.auth.api.signin.GoogleSignIn;
 import com.google.android.gms.auth.api.signin.GoogleSignInOptions;
-import com.google.firebase.FirebaseApp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -44,42 +40,43 @@ public class MainActivity extends AppCompatActivity {
     private LinearLayout btnAddMeal, btnExpenses, btnMembers, btnChecklist;
 
     // Meal Entry Inputs
-    private EditText etBreakfastQty, etLunchQty, etDinnerQty;
+    private LinearLayout mealSlotFields;
+    private EditText[] mealFields = new EditText[0]; // One per slot of mealConfig
     private Button btnConfirmMeal;
+    private TextView tvMonthMeals, tvSyncStatus, tvMyBalance;
+
+    // Inputs of "my balance", each one small counter node (see updateMyBalance)
+    private double myMeals, messMeals, grocery, other, fixedBills, myDeposits;
+    private Double carried; // What I carried out of last month, null until it is settled
+    private List<RosterCache.Member> roster = new ArrayList<>();
+    private List<String> mealUids = new ArrayList<>(), depositUids = new ArrayList<>();
 
     // Firebase
     private FirebaseAuth mAuth;
     private DatabaseReference rdb;
+    private MealStore mealStore;
 
     // User Data & State
     private String currentMessCode = null;
     private String currentUserRole = null;
     private String todayDateKey; // Format: yyyy-MM-dd (For Database)
     private String todayDateDisplay; // Format: MMM dd, yyyy (For UI)
-
-    private static boolean persistenceEnabled = false;
+    private MealAutosave autosave;     // Debounced, slot-level saving of today's entry
+    private MealConfig mealConfig;     // Slots the fields were built for
+    private DataSnapshot mealEntry;    // Today's stored entry, last seen
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        FirebaseApp.initializeApp(this);
         setContentView(R.layout.activity_main);
 
-        // 1. Persistence Logic
-        if (!persistenceEnabled) {
-            try {
-                FirebaseDatabase.getInstance().setPersistenceEnabled(true);
-                persistenceEnabled = true;
-            } catch (Exception ignored) { }
-        }
-
+        // 1. Firebase (initialised once in SmartMessApp)
         mAuth = FirebaseAuth.getInstance();
         rdb = FirebaseDatabase.getInstance().getReference();
 
         // 2. Initialize Date Formats
-        Date now = new Date();
-        todayDateKey = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(now);
-        todayDateDisplay = new SimpleDateFormat("MMM dd, yyyy", Locale.US).format(now);
+        todayDateKey = DateKeys.today();
+        todayDateDisplay = DateKeys.display(todayDateKey);
 
         // 3. View Bindings
         initViews();
@@ -92,15 +89,21 @@ public class MainActivity extends AppCompatActivity {
         if (user == null) {
             sendToLogin();
         } else {
-            // Check Intent Extras first, otherwise fetch from DB
+            // Check Intent Extras first, then the saved session, so the dashboard
+            // can draw right away without waiting on users/{uid}
             currentMessCode = getIntent().getStringExtra("messCode");
             currentUserRole = getIntent().getStringExtra("role");
+            Session session = Session.load(this, user.getUid());
+            if ((currentMessCode == null || currentUserRole == null) && session != null) {
+                currentMessCode = session.messCode;
+                currentUserRole = session.role;
+            }
 
-            if (currentMessCode == null || currentUserRole == null) {
-                fetchUserDetails(user.getUid());
-            } else {
+            if (currentMessCode != null && currentUserRole != null) {
                 loadDashboardData();
             }
+            // Always re-check the profile in the background (or load it, on the very first run)
+            fetchUserDetails(user.getUid());
         }
 
         // 6. Set Click Listeners
@@ -125,110 +128,268 @@ public class MainActivity extends AppCompatActivity {
         btnChecklist = findViewById(R.id.btn_checklist);
 
         // Meal Entry
-        etBreakfastQty = findViewById(R.id.et_breakfast);
-        etLunchQty = findViewById(R.id.et_lunch);
-        etDinnerQty = findViewById(R.id.et_dinner);
+        mealSlotFields = findViewById(R.id.meal_slot_fields);
         btnConfirmMeal = findViewById(R.id.btn_confirm_meal);
+        tvMonthMeals = findViewById(R.id.tv_month_meals);
+        tvSyncStatus = findViewById(R.id.tv_sync_status);
+        tvMyBalance = findViewById(R.id.tv_my_balance);
     }
 
     // --- DATA LOADING ---
 
     private void fetchUserDetails(String uid) {
-        rdb.child("users").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    currentMessCode = snapshot.child("messCode").getValue(String.class);
-                    currentUserRole = snapshot.child("role").getValue(String.class);
-                    loadDashboardData();
-                }
+        // Shared profile stream: already in memory if another screen loaded it
+        MessDataStore.profile(uid).observe(this, snapshot -> {
+            if (!snapshot.exists()) {
+                // Profile is gone (account removed from the mess): drop the session
+                logout();
+                return;
             }
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(MainActivity.this, "Error fetching profile", Toast.LENGTH_SHORT).show();
+            Session fresh = Session.save(this, snapshot);
+            if (fresh == null) return;
+
+            if (currentMessCode == null) {
+                currentMessCode = fresh.messCode;
+                currentUserRole = fresh.role;
+                loadDashboardData();
+            } else if (!fresh.messCode.equals(currentMessCode) || !fresh.role.equals(currentUserRole)) {
+                // Role or mess changed since the session was saved: rebuild from the new one
+                getIntent().removeExtra("messCode");
+                getIntent().removeExtra("role");
+                recreate();
             }
         });
     }
 
     private void loadDashboardData() {
         if (currentMessCode == null) return;
+        mealStore = new MealStore(rdb, currentMessCode);
+        MessDataStore store = MessDataStore.get(currentMessCode);
+
+        // Managers move any old-layout meal nodes over once per mess
+        if ("Manager".equalsIgnoreCase(currentUserRole)) {
+            new MealMigrator(mealStore).runIfNeeded();
+            new DateKeyMigrator(store).runIfNeeded();
+            new LedgerMigrator(store).runIfNeeded();
+        }
+
+        // Streams come from the shared store and only listen while the dashboard is visible
 
         // A. Load "Today's Menu"
-        rdb.child("mess").child(currentMessCode).child("menu").child(todayDateKey)
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        if (snapshot.exists()) {
-                            String b = snapshot.child("breakfast").getValue(String.class);
-                            String l = snapshot.child("lunch").getValue(String.class);
-                            String d = snapshot.child("dinner").getValue(String.class);
-
-                            if(b != null) tvMenuBreakfast.setText(b);
-                            if(l != null) tvMenuLunch.setText(l);
-                            if(d != null) tvMenuDinner.setText(d);
-                        } else {
-                            tvMenuBreakfast.setText("Not Set");
-                            tvMenuLunch.setText("Not Set");
-                            tvMenuDinner.setText("Not Set");
-                        }
-                    }
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
-                });
+        store.menu(todayDateKey).observe(this, snapshot -> {
+            if (snapshot.exists()) {
+                String b = snapshot.child("breakfast").getValue(String.class);
+                String l = snapshot.child("lunch").getValue(String.class);
+                String d = snapshot.child("dinner").getValue(String.class);
+
+                if(b != null) tvMenuBreakfast.setText(b);
+                if(l != null) tvMenuLunch.setText(l);
+                if(d != null) tvMenuDinner.setText(d);
+            } else {
+                tvMenuBreakfast.setText("Not Set");
+                tvMenuLunch.setText("Not Set");
+                tvMenuDinner.setText("Not Set");
+            }
+        });
 
         // B. Load "My Meal Entry" for Today (If already entered)
-        // Path: mess/{messCode}/meals/{date}/{uid}
+        // Path: mess/{messCode}/memberMeals/{uid}/{date}
+        // One field per meal slot of the mess; rebuilt if the manager changes the slots
         String uid = mAuth.getCurrentUser().getUid();
-        rdb.child("mess").child(currentMessCode).child("meals").child(todayDateKey).child(uid)
-                .addValueEventListener(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        if (snapshot.exists()) {
-                            // If data exists, populate the EditTexts so user sees what they entered
-                            Double b = snapshot.child("breakfast").getValue(Double.class);
-                            Double l = snapshot.child("lunch").getValue(Double.class);
-                            Double d = snapshot.child("dinner").getValue(Double.class);
-
-                            // Only update text if view is not focused (prevents typing glitches)
-                            if (!etBreakfastQty.hasFocus()) etBreakfastQty.setText(b == null ? "" : String.valueOf(b));
-                            if (!etLunchQty.hasFocus()) etLunchQty.setText(l == null ? "" : String.valueOf(l));
-                            if (!etDinnerQty.hasFocus()) etDinnerQty.setText(d == null ? "" : String.valueOf(d));
-                        }
-                    }
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
+        store.mealConfig().observe(this, config -> {
+            if (config.equals(mealConfig)) return;
+            if (autosave != null) autosave.flushNow(); // Typed values go out under the old fields
+            mealConfig = config;
+            buildMealFields(config);
+            autosave = new MealAutosave(mealStore, uid, todayDateKey, config, this::showMealFieldState);
+            if (mealEntry != null) showMealEntry(mealEntry);
+        });
+        store.mealEntry(uid, todayDateKey).observe(this, snapshot -> {
+            mealEntry = snapshot;
+            if (autosave != null) showMealEntry(snapshot);
+        });
+
+        // C. Month-to-date counters (one small node, no scan of daily entries)
+        store.monthTotals(DateKeys.month(todayDateKey)).observe(this, snapshot -> {
+            Double mine = snapshot.child("members").child(uid).getValue(Double.class);
+            Double mess = snapshot.child("mess").getValue(Double.class);
+            tvMonthMeals.setText("This month: " + formatMeals(mine) + " meals | Mess: " + formatMeals(mess));
+            myMeals = mine == null ? 0 : mine;
+            messMeals = mess == null ? 0 : mess;
+            mealUids = keys(snapshot.child("members"));
+            updateMyBalance();
+        });
+
+        // D. My balance = carried from last month + what I put in - my share this month,
+        // from counters only (no expense/meal scan, however many months back)
+        String monthKey = DateKeys.month(todayDateKey);
+        store.closingBalances(DateKeys.previousMonth(monthKey)).observe(this, snapshot -> {
+            carried = snapshot.exists() ? Balances.carriedOf(Balances.parse(snapshot), uid) : null;
+            updateMyBalance();
+        });
+        store.expenseTotals(monthKey).observe(this, snapshot -> {
+            grocery = number(snapshot.child("Grocery"));
+            other = number(snapshot.child("Other"));
+            updateMyBalance();
+        });
+        store.depositTotals(monthKey).observe(this, snapshot -> {
+            myDeposits = number(snapshot.child("members").child(uid));
+            depositUids = keys(snapshot.child("members"));
+            updateMyBalance();
+        });
+        store.monthBills(monthKey).observe(this, snapshot -> {
+            if (snapshot.exists()) {
+                fixedBills = Bills.total(Bills.parse(snapshot));
+                updateMyBalance();
+            } else {
+                // Month not saved yet: last known bills stand in, like on the settlement screen
+                Bills.carryForward(store.messRef(), monthKey, (amounts, fromMonth) -> {
+                    fixedBills = Bills.total(amounts);
+                    updateMyBalance();
                 });
+            }
+        });
+        store.roster().observe(this, members -> {
+            roster = members;
+            updateMyBalance();
+        });
+    }
+
+    // Same formula and the same head count as Month_Settlement, just for one member
+    private void updateMyBalance() {
+        int sharers = SettlementEngine.sharers(roster, mealUids, depositUids).size();
+        double balance = SettlementEngine.memberBalance(myMeals, myDeposits, messMeals, sharers,
+                grocery, other, fixedBills);
+        if (carried != null) balance += carried;
+        long rounded = Math.round(balance);
+        // Until the manager settles last month, only this month is known
+        tvMyBalance.setText(carried != null
+                ? "My balance: TK. " + rounded + " (deposited TK. " + Math.round(myDeposits) + " this month)"
+                : "This month: TK. " + rounded + " (last month not settled yet)");
+        tvMyBalance.setTextColor(rounded < 0 ? 0xFFC62828 : 0xFF2E7D32);
+    }
+
+    private static List<String> keys(DataSnapshot snapshot) {
+        List<String> keys = new ArrayList<>();
+        for (DataSnapshot child : snapshot.getChildren()) keys.add(child.getKey());
+        return keys;
+    }
+
+    private static double number(DataSnapshot snap) {
+        Object val = snap.getValue();
+        return val instanceof Number ? ((Number) val).doubleValue() : 0;
+    }
+
+    private String formatMeals(Double value) {
+        if (value == null) return "0";
+        double v = value;
+        return v == (long) v ? String.valueOf((long) v) : String.valueOf(v);
     }
 
     // --- MEAL ENTRY SAVE LOGIC ---
+    // Fields save themselves a moment after typing stops (MealAutosave); only the
+    // changed slots are sent. The confirm button just skips the wait.
+
+    private void buildMealFields(MealConfig config) {
+        mealSlotFields.removeAllViews();
+        mealFields = new EditText[config.size()];
+        for (int slot = 0; slot < config.size(); slot++) {
+            View row = getLayoutInflater().inflate(R.layout.item_meal_slot_field, mealSlotFields, false);
+            ((TextView) row.findViewById(R.id.tv_slot_label)).setText(config.label(slot));
+            mealFields[slot] = row.findViewById(R.id.et_slot_qty);
+            watchMealField(slot, mealFields[slot]);
+            mealSlotFields.addView(row);
+        }
+    }
 
-    private void saveMealEntry() {
-        if (currentMessCode == null) return;
+    private void showMealEntry(DataSnapshot snapshot) {
+        double[] meals = SnapshotMappers.meals(snapshot.getValue(), mealConfig);
+        autosave.onServerValues(meals);
+        if (snapshot.exists()) {
+            // If data exists, populate the EditTexts so user sees what they entered
+            for (int slot = 0; slot < mealFields.length; slot++) showStoredMeal(slot, mealFields[slot], meals[slot]);
+        }
+    }
 
-        String bStr = etBreakfastQty.getText().toString().trim();
-        String lStr = etLunchQty.getText().toString().trim();
-        String dStr = etDinnerQty.getText().toString().trim();
+    private void showStoredMeal(int slot, EditText et, double value) {
+        // Never overwrite what the user is typing or has not saved yet
+        if (et.hasFocus() || autosave.state(slot) != MealAutosave.State.SYNCED) return;
+        String text = MealHistoryAdapter.formatValue(value);
+        if (!text.equals(et.getText().toString())) et.setText(text);
+    }
 
-        // Parse inputs (Default to 0.0 if empty)
-        double b = bStr.isEmpty() ? 0.0 : Double.parseDouble(bStr);
-        double l = lStr.isEmpty() ? 0.0 : Double.parseDouble(lStr);
-        double d = dStr.isEmpty() ? 0.0 : Double.parseDouble(dStr);
+    private void watchMealField(int slot, EditText et) {
+        et.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+            @Override
+            public void afterTextChanged(Editable s) {
+                if (autosave != null) autosave.onInput(slot, s.toString());
+            }
+        });
+    }
 
-        // Prepare Data Object
-        Map<String, Object> mealData = new HashMap<>();
-        mealData.put("breakfast", b);
-        mealData.put("lunch", l);
-        mealData.put("dinner", d);
-        // Optional: Calculate total for easy stats later
-        mealData.put("total", b + l + d);
+    // Pending/saving = pale yellow, failed = pale red, synced = plain white
+    private void showMealFieldState(int slot, MealAutosave.State state) {
+        if (slot >= mealFields.length) return; // Fields of an older config
+        EditText et = mealFields[slot];
+        switch (state) {
+            case PENDING:
+            case SAVING:
+                et.setBackgroundColor(Color.parseColor("#FFF6D5"));
+                break;
+            case INVALID:
+                et.setBackgroundColor(Color.parseColor("#FFE0E0"));
+                et.setError("Enter 0 - " + (int) MealAutosave.MAX_QTY
+                        + (mealConfig.halfMeals ? " in steps of 0.5" : ", whole meals"));
+                break;
+            case FAILED:
+                et.setBackgroundColor(Color.parseColor("#FFE0E0"));
+                et.setError("Not saved - tap Confirm to send it again");
+                break;
+            default:
+                et.setBackgroundColor(Color.WHITE);
+                et.setError(null);
+        }
+    }
 
-        // Path: mess/{messCode}/meals/{yyyy-MM-dd}/{uid}
-        String uid = mAuth.getCurrentUser().getUid();
+    private void saveMealEntry() {
+        if (autosave == null) return;
+        if (autosave.flushNow()) {
+            Toast.makeText(MainActivity.this, "Meals Confirmed for " + todayDateDisplay, Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(MainActivity.this, "Fix the highlighted meal fields", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // Unsynced writes (meals, expenses, bills) waiting in the outbox
+    private final Outbox.Listener syncStatus = outbox -> {
+        String text = OutboxSync.describe(outbox);
+        tvSyncStatus.setVisibility(text == null ? View.GONE : View.VISIBLE);
+        if (text != null) tvSyncStatus.setText(text);
+    };
 
-        rdb.child("mess").child(currentMessCode).child("meals").child(uid).child(todayDateKey)
-                .setValue(mealData)
-                .addOnSuccessListener(v -> Toast.makeText(MainActivity.this, "Meals Confirmed for " + todayDateDisplay, Toast.LENGTH_SHORT).show())
-                .addOnFailureListener(e -> Toast.makeText(MainActivity.this, "Failed to save meals", Toast.LENGTH_SHORT).show());
+    @Override
+    protected void onStart() {
+        super.onStart();
+        Outbox outbox = OutboxSync.get();
+        outbox.addListener(syncStatus);
+        syncStatus.onOutboxChanged(outbox);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        OutboxSync.get().removeListener(syncStatus);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Don't sit on a debounced edit while the screen is going away
+        if (autosave != null) autosave.flushNow();
     }
 
     // --- NAVIGATION & LISTENERS ---
@@ -238,12 +399,7 @@ public class MainActivity extends AppCompatActivity {
         btnConfirmMeal.setOnClickListener(v -> saveMealEntry());
 
         // 2. Logout
-        btnLogout.setOnClickListener(v -> {
-            mAuth.signOut();
-            GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN).requestEmail().build();
-            GoogleSignIn.getClient(MainActivity.this, gso).signOut();
-            sendToLogin();
-        });
+        btnLogout.setOnClickListener(v -> logout());
 
         // 3. Notification (Placeholder)
         btnNotification.setOnClickListener(v ->
@@ -266,7 +422,9 @@ public class MainActivity extends AppCompatActivity {
             } else if (id == R.id.btn_action_members) {
                 intent = new Intent(MainActivity.this, Member_List.class);
             } else if (id == R.id.btn_checklist) {
-                intent = new Intent(MainActivity.this, Meal_History.class);
+                // Managers tick off the whole mess for a day, members just see their history
+                boolean isManager = "Manager".equalsIgnoreCase(currentUserRole);
+                intent = new Intent(MainActivity.this, isManager ? Bulk_Meal_Entry.class : Meal_History.class);
             }
 
             if (intent != null) {
@@ -282,6 +440,14 @@ public class MainActivity extends AppCompatActivity {
         btnChecklist.setOnClickListener(quickAction);
     }
 
+    private void logout() {
+        Session.clear(this);
+        mAuth.signOut();
+        GoogleSignInOptions gso = new GoogleSignInOptions.Builder(GoogleSignInOptions.DEFAULT_SIGN_IN).requestEmail().build();
+        GoogleSignIn.getClient(MainActivity.this, gso).signOut();
+        sendToLogin();
+    }
+
     private void sendToLogin() {
         Intent intent = new Intent(MainActivity.this, Login.class);
         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -0,0 +1,214 @@
+package edu.ewubd.smartmessMN;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Autosave for the dashboard's meal fields, one per slot of the mess's MealConfig.
+// - Every keystroke restarts a short timer; only when typing pauses is anything sent,
+//   so a burst of edits becomes one write.
+// - Input is validated here (empty = 0, 0..MAX_QTY, whole or half meals as the config
+//   says); bad input marks the field INVALID and is never sent.
+// - Only slots whose value differs from what is stored go out, as slot-level
+//   updates of both index copies, with the counter delta.
+// - Writes go through the Outbox (Firebase keeps resending them through bad reception
+//   and restarts); a slot stays SAVING until its write is acknowledged by the server.
+// - A write the server rejects marks its slots FAILED. Nothing resends it on its own:
+//   the next flush (more typing, or the Confirm button) sends those slots again.
+// Each slot reports its state so the screen can show pending/synced per field.
+public class MealAutosave {
+
+    public enum State { SYNCED, PENDING, SAVING, INVALID, FAILED }
+
+    public interface Listener {
+        void onStateChanged(int slot, State state);
+    }
+
+    // The debounce timer and the writes; the app uses the main looper and the outbox,
+    // tests drive both by hand
+    interface Scheduler {
+        void postDelayed(Runnable task, long delayMs);
+        void cancel(Runnable task);
+    }
+
+    interface Writer {
+        void write(Map<String, Object> updates, Outbox.Done done);
+    }
+
+    static final long DEBOUNCE_MS = 800;
+    static final double MAX_QTY = 10;
+
+    private final String uid;
+    private final String dateKey;
+    private final MealConfig config;
+    private final Listener listener;
+    private final Scheduler scheduler;
+    private final Writer writer;
+
+    private final double[] stored;  // Last known server values
+    private final double[] edited;  // Latest valid input
+    private final State[] states;
+    private final int[] sentSeq;    // Which write last carried each slot
+    private int sendSeq = 0;
+    private boolean loaded = false;                // stored[] came from the server at least once
+
+    public MealAutosave(MealStore store, String uid, String dateKey, MealConfig config, Listener listener) {
+        this(uid, dateKey, config, listener, new MainScheduler(),
+                (updates, done) -> OutboxSync.writeMess(store.messCode(), updates, done));
+    }
+
+    MealAutosave(String uid, String dateKey, MealConfig config, Listener listener, Scheduler scheduler, Writer writer) {
+        this.uid = uid;
+        this.dateKey = dateKey;
+        this.config = config;
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.writer = writer;
+        int slots = config.size();
+        stored = new double[slots];
+        edited = new double[slots];
+        states = new State[slots];
+        sentSeq = new int[slots];
+        Arrays.fill(states, State.SYNCED);
+    }
+
+    // Empty means 0; returns NaN for anything that should not be saved
+    static double parse(String text, MealConfig config) {
+        String t = text == null ? "" : text.trim();
+        if (t.isEmpty()) return 0;
+        try {
+            double v = Double.parseDouble(t);
+            return (v >= 0 && v <= MAX_QTY && config.accepts(v)) ? v : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // --- INPUT ---
+
+    // The stored entry changed (our own write, another device, or first load)
+    public void onServerValues(double[] server) {
+        for (int slot = 0; slot < states.length; slot++) {
+            // A queued write is what the server will hold; don't step back behind it
+            if (states[slot] != State.SAVING) stored[slot] = server[slot];
+            if (states[slot] == State.SYNCED) edited[slot] = stored[slot];
+        }
+        if (!loaded) {
+            loaded = true;
+            // Edits typed before the first read can be sent now that the delta is known
+            if (hasUnsent()) schedule();
+        }
+    }
+
+    public void onInput(int slot, String text) {
+        double value = parse(text, config);
+        if (Double.isNaN(value)) {
+            setState(slot, State.INVALID);
+            return;
+        }
+        edited[slot] = value;
+        if (value == stored[slot]) {
+            // Back to what is stored (or already queued): nothing new to send
+            if (states[slot] != State.SAVING) setState(slot, State.SYNCED);
+        } else {
+            setState(slot, State.PENDING);
+            schedule();
+        }
+    }
+
+    public State state(int slot) {
+        return states[slot];
+    }
+
+    public double value(int slot) {
+        return edited[slot];
+    }
+
+    // Confirm button / leaving the screen: skip the wait. Returns false if a field is invalid.
+    public boolean flushNow() {
+        scheduler.cancel(flush);
+        flush.run();
+        for (State state : states) if (state == State.INVALID) return false;
+        return true;
+    }
+
+    // --- WRITING ---
+
+    private void schedule() {
+        scheduler.cancel(flush);
+        scheduler.postDelayed(flush, DEBOUNCE_MS);
+    }
+
+    private boolean hasUnsent() {
+        for (State state : states) if (state == State.PENDING || state == State.FAILED) return true;
+        return false;
+    }
+
+    private final Runnable flush = this::send;
+
+    private void send() {
+        if (!loaded) return; // Picked up again when the first read lands
+
+        double[] sending = stored.clone();
+        boolean[] sent = new boolean[states.length];
+        Map<String, Object> updates = new HashMap<>();
+        for (int slot = 0; slot < states.length; slot++) {
+            if (states[slot] != State.PENDING && states[slot] != State.FAILED) continue;
+            if (edited[slot] == stored[slot]) {
+                setState(slot, State.SYNCED); // Typed back to what is stored
+                continue;
+            }
+            sending[slot] = edited[slot];
+            sent[slot] = true;
+            MealStore.putEntrySlot(updates, uid, dateKey, slot, edited[slot]);
+        }
+        if (updates.isEmpty()) return;
+
+        MealStore.putTotalsDelta(updates, uid, dateKey, MealEncoding.sum(sending) - MealEncoding.sum(stored));
+
+        int seq = ++sendSeq;
+        double[] before = stored.clone();
+        for (int slot = 0; slot < states.length; slot++) {
+            if (!sent[slot]) continue;
+            sentSeq[slot] = seq;
+            setState(slot, State.SAVING);
+        }
+        // Queued durably, so the next delta is taken from these values
+        System.arraycopy(sending, 0, stored, 0, stored.length);
+
+        writer.write(updates, ok -> {
+            for (int slot = 0; slot < states.length; slot++) {
+                if (sentSeq[slot] != seq || states[slot] != State.SAVING) continue;
+                if (ok) {
+                    setState(slot, State.SYNCED);
+                } else {
+                    stored[slot] = before[slot]; // Never applied: the next flush sends it against the old value
+                    setState(slot, State.FAILED);
+                }
+            }
+        });
+    }
+
+    private static class MainScheduler implements Scheduler {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            handler.postDelayed(task, delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            handler.removeCallbacks(task);
+        }
+    }
+
+    private void setState(int slot, State state) {
+        if (states[slot] == state) return;
+        states[slot] = state;
+        listener.onStateChanged(slot, state);
+    }
+}
@@ -0,0 +1,121 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Meal slots of one mess.
+// Path: mess/{code}/mealConfig = {slots: ["Breakfast", "Lunch", "Dinner", "Iftar"], halfMeals: true}
+// Entries are keyed by slot position (MealEncoding), so a slot can be renamed or added at
+// the end but never removed or moved. Messes without a config get the three classic slots.
+public final class MealConfig {
+
+    public static final String NODE = "mealConfig";
+    static final int MAX_SLOTS = 6;
+    public static final MealConfig DEFAULT = new MealConfig(Arrays.asList("Breakfast", "Lunch", "Dinner"), true);
+
+    private final String[] labels;
+    private final String[] shortLabels;
+    public final boolean halfMeals;
+
+    MealConfig(List<String> labels, boolean halfMeals) {
+        this.labels = labels.toArray(new String[0]);
+        this.halfMeals = halfMeals;
+        this.shortLabels = new String[this.labels.length];
+        for (int i = 0; i < shortLabels.length; i++) {
+            // One letter, two when another slot starts with the same one (Dinner / Dessert)
+            String label = this.labels[i];
+            boolean clash = false;
+            for (int j = 0; j < this.labels.length; j++) {
+                if (j != i && initial(this.labels[j]).equals(initial(label))) clash = true;
+            }
+            shortLabels[i] = clash && label.length() > 1 ? initial(label) + label.substring(1, 2) : initial(label);
+        }
+    }
+
+    private static String initial(String label) {
+        return label.isEmpty() ? "?" : label.substring(0, 1).toUpperCase();
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    public String label(int slot) {
+        return labels[slot];
+    }
+
+    // Column header ("B", "L", "D", ...)
+    public String shortLabel(int slot) {
+        return shortLabels[slot];
+    }
+
+    public List<String> labels() {
+        return Arrays.asList(labels);
+    }
+
+    // Smallest amount one slot can move by
+    public double step() {
+        return halfMeals ? 0.5 : 1;
+    }
+
+    public boolean accepts(double meals) {
+        return halfMeals ? MealEncoding.exact(meals) : meals == Math.rint(meals);
+    }
+
+    // --- PARSE / WRITE ---
+
+    // From mealConfig's getValue(); anything missing or unusable falls back to DEFAULT
+    static MealConfig from(Object raw) {
+        if (!(raw instanceof Map)) return DEFAULT;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        List<String> labels = new ArrayList<>();
+        if (map.get("slots") instanceof List) {
+            for (Object label : (List<?>) map.get("slots")) {
+                String s = label == null ? "" : String.valueOf(label).trim();
+                labels.add(s.isEmpty() ? "Slot " + (labels.size() + 1) : s); // Keep positions
+            }
+        }
+        if (labels.isEmpty()) return DEFAULT;
+        Object half = map.get("halfMeals");
+        return new MealConfig(labels, !(half instanceof Boolean) || (Boolean) half);
+    }
+
+    // "Breakfast, Lunch, Dinner, Iftar" as typed in the slot editor
+    static MealConfig fromInput(String text, boolean halfMeals) {
+        List<String> labels = new ArrayList<>();
+        for (String label : text.split(",", -1)) labels.add(label.trim());
+        return new MealConfig(labels, halfMeals);
+    }
+
+    // Reason an edit of this config cannot be saved, null if it can
+    String checkEdit(MealConfig edited) {
+        if (edited.size() < size()) return "Slots can be renamed or added, not removed";
+        if (edited.size() > MAX_SLOTS) return "At most " + MAX_SLOTS + " slots";
+        for (String label : edited.labels) {
+            if (label.trim().isEmpty()) return "Slot names can't be empty";
+        }
+        return null;
+    }
+
+    public static void put(Map<String, Object> updates, MealConfig config) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("slots", new ArrayList<>(config.labels()));
+        value.put("halfMeals", config.halfMeals);
+        updates.put(NODE, value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MealConfig)) return false;
+        MealConfig other = (MealConfig) o;
+        return halfMeals == other.halfMeals && Arrays.equals(labels, other.labels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(labels) * 31 + (halfMeals ? 1 : 0);
+    }
+}
@@ -0,0 +1,103 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Stored form of one meal entry: a small array of integer half-meal units, indexed by
+// slot position (see MealConfig), with no stored total:
+//   mess/{code}/meals/{date}/{uid} = [2, 1, 0]        1 + 0.5 + 0 meals
+// instead of {breakfast: 1.0, lunch: 0.5, dinner: 0.0, total: 1.5}.
+// RTDB keeps an array as children "0", "1", ..., so a single slot can still be written on
+// its own (.../{uid}/1 = 1). Older entries (maps keyed by slot name) still decode; where an
+// entry has both forms for a slot, the numeric child is the newer write and wins.
+final class MealEncoding {
+
+    static final int UNITS_PER_MEAL = 2;
+    static final String[] LEGACY_KEYS = {"breakfast", "lunch", "dinner"};
+
+    private MealEncoding() {}
+
+    static long units(double meals) {
+        return Math.round(meals * UNITS_PER_MEAL);
+    }
+
+    static double meals(double units) {
+        return units / UNITS_PER_MEAL;
+    }
+
+    // True if the amount is stored exactly (a whole number of units)
+    static boolean exact(double meals) {
+        double units = meals * UNITS_PER_MEAL;
+        return units == Math.rint(units);
+    }
+
+    // --- WRITE ---
+
+    static List<Long> encode(double[] meals) {
+        List<Long> units = new ArrayList<>(meals.length);
+        for (double m : meals) units.add(units(m));
+        return units;
+    }
+
+    // Any stored entry (either form) in the array form; null for an empty entry
+    static List<Long> convert(Object raw) {
+        int width = width(raw);
+        return width == 0 ? null : encode(decode(raw, width));
+    }
+
+    // --- READ ---
+
+    // Meals of the first `slots` positions; zeros where missing
+    static double[] decode(Object raw, int slots) {
+        double[] meals = new double[slots];
+        for (int i = 0; i < slots; i++) meals[i] = slot(raw, i);
+        return meals;
+    }
+
+    // Every position present, whatever the mess's config currently is
+    static double total(Object raw) {
+        double sum = 0;
+        for (int i = 0, width = width(raw); i < width; i++) sum += slot(raw, i);
+        return sum;
+    }
+
+    static double sum(double[] meals) {
+        double sum = 0;
+        for (double m : meals) sum += m;
+        return sum;
+    }
+
+    private static double slot(Object raw, int i) {
+        if (raw instanceof List) {
+            List<?> list = (List<?>) raw;
+            return i < list.size() ? meals(SnapshotMappers.number(list.get(i))) : 0;
+        }
+        if (raw instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) raw;
+            Object units = map.get(String.valueOf(i));
+            if (units != null) return meals(SnapshotMappers.number(units));
+            if (i < LEGACY_KEYS.length) return SnapshotMappers.number(map.get(LEGACY_KEYS[i]));
+        }
+        return 0;
+    }
+
+    // Number of slot positions the entry has values for
+    private static int width(Object raw) {
+        if (raw instanceof List) return ((List<?>) raw).size();
+        if (!(raw instanceof Map)) return 0;
+        int width = 0;
+        for (Object key : ((Map<?, ?>) raw).keySet()) {
+            String k = String.valueOf(key);
+            for (int i = 0; i < LEGACY_KEYS.length; i++) {
+                if (LEGACY_KEYS[i].equals(k)) width = Math.max(width, i + 1);
+            }
+            if (!k.isEmpty() && k.length() < 3 && Character.isDigit(k.charAt(0))) {
+                try {
+                    width = Math.max(width, Integer.parseInt(k) + 1);
+                } catch (NumberFormatException ignored) { }
+            }
+        }
+        return width;
+    }
+}
@@ -1,58 +1,92 @@
 package edu.ewubd.smartmessMN;
 
-import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.TextView;
+
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
-import java.util.ArrayList;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+public class MealHistoryAdapter extends StableListAdapter<MealHistoryItem, MealHistoryAdapter.ViewHolder> {
 
-public class MealHistoryAdapter extends ArrayAdapter<MealHistoryItem> {
+    public MealHistoryAdapter() {
+        super(DIFF);
+    }
 
-    public MealHistoryAdapter(@NonNull Context context, ArrayList<MealHistoryItem> list) {
-        super(context, 0, list);
+    // Rows are built for a number of slots; a changed MealConfig gets fresh holders
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).slots.length;
     }
 
     @NonNull
     @Override
-    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
-        // Reuse view if possible for performance
-        if (convertView == null) {
-            convertView = LayoutInflater.from(getContext()).inflate(R.layout.activity_row_meal, parent, false);
-        }
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.activity_row_meal, parent, false);
+        return new ViewHolder(view, viewType);
+    }
 
-        // Get the data item for this position
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         MealHistoryItem item = getItem(position);
+        holder.tvName.setText(item.userName);
 
-        // Bind the views from row_meal_history.xml
-        TextView tvName = convertView.findViewById(R.id.tv_row_name);
-        TextView tvB = convertView.findViewById(R.id.tv_row_b);
-        TextView tvL = convertView.findViewById(R.id.tv_row_l);
-        TextView tvD = convertView.findViewById(R.id.tv_row_d);
-        TextView tvTotal = convertView.findViewById(R.id.tv_row_total);
-
-        // Populate the data
-        if (item != null) {
-            tvName.setText(item.userName);
-
-            // Use formatValue helper to hide decimals if it's a whole number (e.g. "1.0" -> "1")
-            tvB.setText(formatValue(item.breakfast));
-            tvL.setText(formatValue(item.lunch));
-            tvD.setText(formatValue(item.dinner));
-            tvTotal.setText(formatValue(item.total));
+        // Use formatValue helper to hide decimals if it's a whole number (e.g. "1.0" -> "1")
+        for (int slot = 0; slot < holder.tvSlots.length; slot++) {
+            holder.tvSlots[slot].setText(formatValue(item.slots[slot]));
         }
+        holder.tvTotal.setText(formatValue(item.total));
+    }
 
-        return convertView;
+    @Override
+    protected String keyOf(MealHistoryItem item) {
+        return item.uid;
     }
 
     // Helper: Formats double to string. Removes ".0" if it's a whole number.
-    private String formatValue(double val) {
-        if(val == (long) val)
-            return String.format("%d", (long)val);
+    static String formatValue(double val) {
+        if (val == (long) val)
+            return Long.toString((long) val);
         else
-            return String.format("%s", val);
+            return Double.toString(val);
     }
-}
\ No newline at end of file
+
+    // "B 1 | L 0.5 | D 0"
+    static String formatSplit(MealConfig config, double[] meals, String separator) {
+        StringBuilder text = new StringBuilder();
+        for (int slot = 0; slot < Math.min(config.size(), meals.length); slot++) {
+            if (slot > 0) text.append(separator);
+            text.append(config.shortLabel(slot)).append(' ').append(formatValue(meals[slot]));
+        }
+        return text.toString();
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvName, tvTotal;
+        final TextView[] tvSlots;
+
+        ViewHolder(@NonNull View itemView, int slotCount) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.tv_row_name);
+            tvSlots = SlotColumns.fill(itemView.findViewById(R.id.tv_row_slot), slotCount);
+            tvTotal = itemView.findViewById(R.id.tv_row_total);
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<MealHistoryItem> DIFF = new DiffUtil.ItemCallback<MealHistoryItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MealHistoryItem a, @NonNull MealHistoryItem b) {
+            return Objects.equals(a.uid, b.uid);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull MealHistoryItem a, @NonNull MealHistoryItem b) {
+            return Arrays.equals(a.slots, b.slots) && Objects.equals(a.userName, b.userName);
+        }
+    };
+}
@@ -3,17 +3,13 @@ package edu.ewubd.smartmessMN;
 public class MealHistoryItem {
     public String uid;
     public String userName;
-    public double breakfast;
-    public double lunch;
-    public double dinner;
+    public double[] slots; // Meals per configured slot (MealConfig)
     public double total;
 
-    public MealHistoryItem(String uid, String userName, double b, double l, double d) {
+    public MealHistoryItem(String uid, String userName, double[] slots) {
         this.uid = uid;
         this.userName = userName;
-        this.breakfast = b;
-        this.lunch = l;
-        this.dinner = d;
-        this.total = b + l + d; // Auto-calculate total
+        this.slots = slots;
+        this.total = MealEncoding.sum(slots); // Auto-calculate total
     }
-}
\ No newline at end of file
+}
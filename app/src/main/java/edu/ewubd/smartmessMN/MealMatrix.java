@@ -0,0 +1,125 @@
+package edu.ewubd.smartmessMN;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+// One month of meals for a set of members, kept in a single primitive array:
+// cells[(member * days + day) * slots + slot], slot positions as in the mess's MealConfig.
+// Row (member) and column (day) totals are computed once while building, so
+// drawing the grid only ever reads numbers.
+public class MealMatrix {
+
+    public final String monthKey;
+    public final int days;
+    public final MealConfig config;
+    private final int slots;
+    final String[] uids;
+    final String[] names;
+
+    private final double[] cells;
+    private final double[] memberTotals;
+    private final double[] dayTotals;
+    private double grandTotal;
+
+    MealMatrix(String monthKey, MealConfig config, String[] uids, String[] names) {
+        this.monthKey = monthKey;
+        this.days = YearMonth.parse(monthKey).lengthOfMonth();
+        this.config = config;
+        this.slots = config.size();
+        this.uids = uids;
+        this.names = names;
+        this.cells = new double[uids.length * days * slots];
+        this.memberTotals = new double[uids.length];
+        this.dayTotals = new double[days];
+    }
+
+    // From meals/{date}/{uid} read over a month range (manager view)
+    static MealMatrix fromDayNodes(String monthKey, MealConfig config, Map<String, String> roster, Object rawRange) {
+        MealMatrix matrix = new MealMatrix(monthKey, config,
+                roster.keySet().toArray(new String[0]), roster.values().toArray(new String[0]));
+        Map<String, Integer> index = new HashMap<>();
+        for (int m = 0; m < matrix.uids.length; m++) index.put(matrix.uids[m], m);
+
+        if (rawRange instanceof Map) {
+            for (Map.Entry<?, ?> day : ((Map<?, ?>) rawRange).entrySet()) {
+                int d = matrix.dayIndex(String.valueOf(day.getKey()));
+                if (d < 0 || !(day.getValue() instanceof Map)) continue;
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) day.getValue()).entrySet()) {
+                    Integer m = index.get(String.valueOf(entry.getKey()));
+                    if (m != null) matrix.put(m, d, SnapshotMappers.meals(entry.getValue(), config));
+                }
+            }
+        }
+        matrix.computeTotals();
+        return matrix;
+    }
+
+    // From memberMeals/{uid}/{date} read over a month range (a member's own view)
+    static MealMatrix fromMemberNode(String monthKey, MealConfig config, String uid, String name, Object rawRange) {
+        MealMatrix matrix = new MealMatrix(monthKey, config, new String[]{uid}, new String[]{name});
+        if (rawRange instanceof Map) {
+            for (Map.Entry<?, ?> day : ((Map<?, ?>) rawRange).entrySet()) {
+                int d = matrix.dayIndex(String.valueOf(day.getKey()));
+                if (d >= 0) matrix.put(0, d, SnapshotMappers.meals(day.getValue(), config));
+            }
+        }
+        matrix.computeTotals();
+        return matrix;
+    }
+
+    public int memberCount() {
+        return uids.length;
+    }
+
+    public double get(int member, int day, int slot) {
+        return cells[(member * days + day) * slots + slot];
+    }
+
+    // One cell's meals per slot (a copy)
+    public double[] slots(int member, int day) {
+        double[] meals = new double[slots];
+        System.arraycopy(cells, (member * days + day) * slots, meals, 0, slots);
+        return meals;
+    }
+
+    public double dayTotal(int member, int day) {
+        int base = (member * days + day) * slots;
+        double total = 0;
+        for (int slot = 0; slot < slots; slot++) total += cells[base + slot];
+        return total;
+    }
+
+    public double memberTotal(int member) {
+        return memberTotals[member];
+    }
+
+    public double columnTotal(int day) {
+        return dayTotals[day];
+    }
+
+    public double grandTotal() {
+        return grandTotal;
+    }
+
+    // 0-based day of this month for a yyyy-MM-dd key, -1 if it belongs elsewhere
+    private int dayIndex(String dateKey) {
+        if (!DateKeys.isKey(dateKey) || !dateKey.startsWith(monthKey)) return -1;
+        return Integer.parseInt(dateKey.substring(8)) - 1;
+    }
+
+    private void put(int member, int day, double[] meals) {
+        System.arraycopy(meals, 0, cells, (member * days + day) * slots, slots);
+    }
+
+    private void computeTotals() {
+        for (int m = 0; m < uids.length; m++) {
+            for (int d = 0; d < days; d++) {
+                double t = dayTotal(m, d);
+                memberTotals[m] += t;
+                dayTotals[d] += t;
+                grandTotal += t;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package edu.ewubd.smartmessMN;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+// Draws a MealMatrix as a grid of cells through GridLayoutManager, so only the cells
+// on screen exist as views no matter how many members the mess has.
+// Layout per row: [name (NAME_SPAN cells)] [day 1] ... [day N] [total]
+// First row is the day header, last row the per-day totals.
+public class MealMatrixAdapter extends RecyclerView.Adapter<MealMatrixAdapter.CellHolder> {
+
+    static final int NAME_SPAN = 3;
+    private static final int TYPE_LABEL = 0;
+    private static final int TYPE_CELL = 1;
+
+    private MealMatrix matrix;
+    private int[] rows = new int[0]; // Matrix member index of every visible member row
+
+    public MealMatrixAdapter() {
+        setHasStableIds(true);
+    }
+
+    // rows: matrix member indexes to show (see NameSearch), null for everyone.
+    // The totals row keeps whole-mess numbers; filtering only hides member rows.
+    public void setMatrix(MealMatrix matrix, int[] rows) {
+        this.matrix = matrix;
+        if (rows == null) {
+            rows = new int[matrix.memberCount()];
+            for (int m = 0; m < rows.length; m++) rows[m] = m;
+        }
+        this.rows = rows;
+        notifyDataSetChanged();
+    }
+
+    public MealMatrix matrix() {
+        return matrix;
+    }
+
+    public int spanCount() {
+        return matrix == null ? NAME_SPAN + 2 : NAME_SPAN + matrix.days + 1;
+    }
+
+    public GridLayoutManager.SpanSizeLookup spanSizeLookup() {
+        return new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return position % columns() == 0 ? NAME_SPAN : 1;
+            }
+        };
+    }
+
+    private int columns() {
+        return matrix == null ? 1 : matrix.days + 2;
+    }
+
+    @Override
+    public int getItemCount() {
+        return matrix == null ? 0 : (rows.length + 2) * columns();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position; // The grid is rebuilt as a whole on every load
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int row = position / columns();
+        int col = position % columns();
+        boolean label = row == 0 || row == rows.length + 1 || col == 0 || col == columns() - 1;
+        return label ? TYPE_LABEL : TYPE_CELL;
+    }
+
+    @NonNull
+    @Override
+    public CellHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        int layout = viewType == TYPE_LABEL ? R.layout.activity_row_meal_label : R.layout.activity_row_meal_cell;
+        return new CellHolder(LayoutInflater.from(parent.getContext()).inflate(layout, parent, false));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull CellHolder holder, int position) {
+        int row = position / columns();
+        int col = position % columns();
+        int lastCol = columns() - 1;
+        int day = col - 1;
+
+        String text;
+        if (row == 0) {
+            // Day header
+            text = col == 0 ? "Member" : col == lastCol ? "Tot" : Integer.toString(col);
+        } else if (row == rows.length + 1) {
+            // Per-day totals
+            text = col == 0 ? "Total" : MealHistoryAdapter.formatValue(col == lastCol ? matrix.grandTotal() : matrix.columnTotal(day));
+        } else {
+            int member = rows[row - 1];
+            if (col == 0) text = matrix.names[member];
+            else if (col == lastCol) text = MealHistoryAdapter.formatValue(matrix.memberTotal(member));
+            else {
+                double total = matrix.dayTotal(member, day);
+                text = total == 0 ? "" : MealHistoryAdapter.formatValue(total);
+            }
+        }
+        holder.tvCell.setText(text);
+    }
+
+    class CellHolder extends RecyclerView.ViewHolder {
+        final TextView tvCell;
+
+        CellHolder(@NonNull View itemView) {
+            super(itemView);
+            tvCell = (TextView) itemView;
+            // Tap a member/day cell to see its per-slot split
+            itemView.setOnClickListener(v -> {
+                int position = getBindingAdapterPosition();
+                if (position == RecyclerView.NO_POSITION || getItemViewType(position) != TYPE_CELL) return;
+                int member = rows[position / columns() - 1];
+                int day = position % columns() - 1;
+                String detail = matrix.names[member] + ", " + matrix.monthKey + "-" + (day < 9 ? "0" : "") + (day + 1)
+                        + ": " + MealHistoryAdapter.formatSplit(matrix.config, matrix.slots(member, day), " | ");
+                Toast.makeText(v.getContext(), detail, Toast.LENGTH_SHORT).show();
+            });
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+// One-time conversion of old meal nodes into the MealStore layout.
+// Old builds wrote meals/{uid}/{date}; those are moved to meals/{date}/{uid} and
+// mirrored into memberMeals. Children are read a page at a time so a mess with
+// a long history never has to fit in memory at once. Version 3 also seeds the
+// month-to-date counters of every month that has entries; version 4 converts every
+// entry to the compact form (MealEncoding), dropping the stored total. Entries already
+// keyed by date are converted slot by slot (see putConverted), never rewritten whole.
+public class MealMigrator {
+
+    private static final String TAG = "MealMigrator";
+    static final int SCHEMA_VERSION = 4;
+    private static final int PAGE_SIZE = 20;
+
+    private final MealStore store;
+    private final DatabaseReference messRef;
+    private final DatabaseReference schemaRef;
+    private final TreeSet<String> months = new TreeSet<>(); // Every month seen on the way
+
+    public MealMigrator(MealStore store) {
+        this.store = store;
+        this.messRef = store.messRef();
+        this.schemaRef = messRef.child("schema").child("meals");
+    }
+
+    // Cheap leaf check, runs the migration only when the mess is still on the old layout
+    public void runIfNeeded() {
+        schemaRef.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long version = snapshot.getValue(Long.class);
+                if (version == null || version < SCHEMA_VERSION) {
+                    migratePage(null);
+                }
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Schema check failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private void migratePage(String lastKey) {
+        Query page = messRef.child(MealStore.BY_DATE).orderByKey();
+        if (lastKey != null) page = page.startAfter(lastKey);
+
+        page.limitToFirst(PAGE_SIZE).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Object> updates = new HashMap<>();
+                Map<String, Map<String, Double>> rounding = new HashMap<>(); // month -> uid -> meals
+                String nextKey = null;
+                long count = 0;
+
+                for (DataSnapshot node : snapshot.getChildren()) {
+                    String key = node.getKey();
+                    nextKey = key;
+                    count++;
+
+                    if (DateKeys.isKey(key)) {
+                        // Already keyed by date: older entries are still maps with a total
+                        months.add(DateKeys.month(key));
+                        for (DataSnapshot entry : node.getChildren()) {
+                            putConverted(updates, entry.getKey(), key, entry.getValue());
+                            addRounding(rounding, entry.getKey(), key, entry.getValue());
+                        }
+                    } else {
+                        // Old layout: meals/{uid}/{date}
+                        for (DataSnapshot entry : node.getChildren()) {
+                            if (!DateKeys.isKey(entry.getKey())) continue;
+                            months.add(DateKeys.month(entry.getKey()));
+                            // Converted under its date earlier on this page: that copy is newer, and
+                            // RTDB rejects an update holding a path and one below it
+                            if (hasPathBelow(updates, MealStore.BY_DATE + "/" + entry.getKey() + "/" + key)) continue;
+                            MealStore.putEntry(updates, key, entry.getKey(), MealEncoding.convert(entry.getValue()));
+                            addRounding(rounding, key, entry.getKey(), entry.getValue());
+                        }
+                        updates.put(MealStore.BY_DATE + "/" + key, null);
+                    }
+                }
+
+                for (Map.Entry<String, Map<String, Double>> month : rounding.entrySet()) {
+                    MealStore.putTotalsDeltas(updates, DateKeys.monthStart(month.getKey()), month.getValue());
+                }
+
+                boolean lastPage = count < PAGE_SIZE;
+                if (lastPage) {
+                    updates.put("schema/meals", SCHEMA_VERSION);
+                }
+
+                String resumeKey = nextKey;
+                if (updates.isEmpty()) {
+                    migratePage(resumeKey);
+                    return;
+                }
+                messRef.updateChildren(updates)
+                        .addOnSuccessListener(v -> {
+                            if (!lastPage) migratePage(resumeKey);
+                            else rebuildTotals(months.iterator());
+                        })
+                        .addOnFailureListener(e -> Log.w(TAG, "Meal migration failed", e));
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Meal migration read failed: " + error.getMessage());
+            }
+        });
+    }
+
+    // A date-keyed entry still in the old map form. Only the slots held under a legacy
+    // name are written: a numeric child is newer (an autosave, a bulk save) and is left
+    // alone, so the page read can't overwrite edits made since. Then the legacy keys go.
+    private static void putConverted(Map<String, Object> updates, String uid, String dateKey, Object raw) {
+        if (!(raw instanceof Map)) return; // Already compact
+        Map<?, ?> entry = (Map<?, ?>) raw;
+        for (int slot = 0; slot < MealEncoding.LEGACY_KEYS.length; slot++) {
+            String legacy = MealEncoding.LEGACY_KEYS[slot];
+            if (!entry.containsKey(legacy)) continue;
+            if (!entry.containsKey(String.valueOf(slot))) {
+                MealStore.putEntrySlot(updates, uid, dateKey, slot, SnapshotMappers.number(entry.get(legacy)));
+            }
+            MealStore.putEntryChild(updates, uid, dateKey, legacy, null);
+        }
+        if (entry.containsKey("total")) MealStore.putEntryChild(updates, uid, dateKey, "total", null);
+    }
+
+    // Amounts that weren't whole or half meals (0.3) are rounded to half meals on the way;
+    // the month counters move by the same difference so they keep matching the entries
+    private static void addRounding(Map<String, Map<String, Double>> rounding, String uid, String dateKey, Object raw) {
+        double diff = MealEncoding.total(MealEncoding.convert(raw)) - MealEncoding.total(raw);
+        if (diff == 0) return;
+        Map<String, Double> month = rounding.get(DateKeys.month(dateKey));
+        if (month == null) {
+            month = new HashMap<>();
+            rounding.put(DateKeys.month(dateKey), month);
+        }
+        Double sum = month.get(uid);
+        month.put(uid, (sum == null ? 0 : sum) + diff);
+    }
+
+    private static boolean hasPathBelow(Map<String, Object> updates, String path) {
+        for (String key : updates.keySet()) {
+            if (key.startsWith(path + "/")) return true;
+        }
+        return false;
+    }
+
+    // One month at a time, so only one month of entries is in memory
+    private void rebuildTotals(Iterator<String> remaining) {
+        if (!remaining.hasNext()) return;
+        store.rebuildMonthTotals(remaining.next(), () -> rebuildTotals(remaining));
+    }
+}
@@ -0,0 +1,153 @@
+package edu.ewubd.smartmessMN;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Canonical meal layout for a mess. Every entry lives in two indexes:
+//   mess/{code}/meals/{yyyy-MM-dd}/{uid}     -> manager's daily roster view
+//   mess/{code}/memberMeals/{uid}/{yyyy-MM-dd} -> a member's own history
+// Both copies are always written together in one multi-path updateChildren.
+// An entry is an array of half-meal units by slot position (see MealEncoding/MealConfig).
+// Month-to-date counters sit next to them and only ever receive the delta of an edit:
+//   mess/{code}/mealTotals/{yyyy-MM}/members/{uid}
+//   mess/{code}/mealTotals/{yyyy-MM}/mess
+public class MealStore {
+
+    public static final String BY_DATE = "meals";
+    public static final String BY_MEMBER = "memberMeals";
+    public static final String TOTALS = "mealTotals";
+
+    private final String messCode;
+    private final DatabaseReference messRef;
+
+    public MealStore(DatabaseReference rootRef, String messCode) {
+        this.messCode = messCode;
+        this.messRef = rootRef.child("mess").child(messCode);
+    }
+
+    public String messCode() {
+        return messCode;
+    }
+
+    public DatabaseReference messRef() {
+        return messRef;
+    }
+
+    // --- READ PATHS ---
+
+    // All entries of one day: {uid -> entry}
+    public DatabaseReference dayRef(String dateKey) {
+        return messRef.child(BY_DATE).child(dateKey);
+    }
+
+    // All entries of one member: {date -> entry}
+    public DatabaseReference memberRef(String uid) {
+        return messRef.child(BY_MEMBER).child(uid);
+    }
+
+    public DatabaseReference entryRef(String uid, String dateKey) {
+        return memberRef(uid).child(dateKey);
+    }
+
+    // Month-to-date counters: {members: {uid -> meals}, mess -> meals}
+    public DatabaseReference monthTotalsRef(String monthKey) {
+        return messRef.child(TOTALS).child(monthKey);
+    }
+
+    // --- WRITE PATHS ---
+
+    public static List<Long> entryValue(double[] meals) {
+        return MealEncoding.encode(meals);
+    }
+
+    // Adds both index copies of one entry to a pending fan-out (paths relative to mess/{code})
+    public static void putEntry(Map<String, Object> updates, String uid, String dateKey, Object value) {
+        updates.put(BY_DATE + "/" + dateKey + "/" + uid, value);
+        updates.put(BY_MEMBER + "/" + uid + "/" + dateKey, value);
+    }
+
+    // One slot only (e.g. just lunch) into both index copies; the other slots are left alone
+    public static void putEntrySlot(Map<String, Object> updates, String uid, String dateKey, int slot, double meals) {
+        putEntryChild(updates, uid, dateKey, String.valueOf(slot), MealEncoding.units(meals));
+    }
+
+    // Any single child of an entry in both index copies (null removes it)
+    public static void putEntryChild(Map<String, Object> updates, String uid, String dateKey, String child, Object value) {
+        updates.put(BY_DATE + "/" + dateKey + "/" + uid + "/" + child, value);
+        updates.put(BY_MEMBER + "/" + uid + "/" + dateKey + "/" + child, value);
+    }
+
+    // Server-side increments keep concurrent edits from different phones consistent
+    public static void putTotalsDelta(Map<String, Object> updates, String uid, String dateKey, double delta) {
+        if (delta == 0) return;
+        String base = TOTALS + "/" + DateKeys.month(dateKey);
+        updates.put(base + "/members/" + uid, ServerValue.increment(delta));
+        updates.put(base + "/mess", ServerValue.increment(delta));
+    }
+
+    // Several members in one fan-out: one increment per member and a single summed one
+    // for the mess (putting the mess path once per member would keep only the last delta)
+    public static void putTotalsDeltas(Map<String, Object> updates, String dateKey, Map<String, Double> deltas) {
+        String base = TOTALS + "/" + DateKeys.month(dateKey);
+        double messDelta = 0;
+        for (Map.Entry<String, Double> delta : deltas.entrySet()) {
+            if (delta.getValue() == 0) continue;
+            updates.put(base + "/members/" + delta.getKey(), ServerValue.increment(delta.getValue()));
+            messDelta += delta.getValue();
+        }
+        if (messDelta != 0) {
+            updates.put(base + "/mess", ServerValue.increment(messDelta));
+        }
+    }
+
+    // Brings one month's counters in line with the by-date index (used after migration).
+    // The sums only go in if no meal edit moved the counters while the days were being
+    // read, otherwise the days are read again (see CounterRebuild).
+    public void rebuildMonthTotals(String monthKey, Runnable done) {
+        CounterRebuild.run(monthTotalsRef(monthKey), sums ->
+                dayRangeQuery(DateKeys.monthStart(monthKey), DateKeys.monthEnd(monthKey)).addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        Map<String, Double> members = new HashMap<>();
+                        double messTotal = 0;
+                        for (DataSnapshot day : snapshot.getChildren()) {
+                            for (DataSnapshot entry : day.getChildren()) {
+                                double total = entryTotal(entry);
+                                Double current = members.get(entry.getKey());
+                                members.put(entry.getKey(), (current == null ? 0 : current) + total);
+                                messTotal += total;
+                            }
+                        }
+                        // Members with a counter but no entries any more drop out of "members"
+                        Map<String, Object> totals = new HashMap<>();
+                        totals.put("members", members);
+                        totals.put("mess", messTotal);
+                        sums.onSums(totals);
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        sums.onSums(null);
+                    }
+                }), ok -> done.run());
+    }
+
+    // Day nodes between two yyyy-MM-dd keys (inclusive), one bounded read
+    public Query dayRangeQuery(String fromDateKey, String toDateKey) {
+        return messRef.child(BY_DATE).orderByKey().startAt(fromDateKey).endAt(toDateKey);
+    }
+
+    // Summed from the slots; a "total" left on an old entry may be stale
+    static double entryTotal(DataSnapshot entry) {
+        return MealEncoding.total(entry.getValue());
+    }
+}
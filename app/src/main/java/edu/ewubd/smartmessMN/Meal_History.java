@@ -2,53 +2,85 @@ package edu.ewubd.smartmessMN;
 
 import android.app.DatePickerDialog;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.EditText;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
-import android.widget.ListView;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Locale;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class Meal_History extends AppCompatActivity {
 
     // Views
     private EditText etSelectDate, etSearchMember;
-    private ListView lvExpense;
+    private RecyclerView rvMealHistory;
     private ImageView icOpenCalendar;
     private LinearLayout searchContainer; // To hide search for members
+    private TextView tvToggleMonth, tvToggleLive, tvDayTotals, tvHeaderSlot;
+    private View headerRows, monthContainer;
+    private RecyclerView rvMealMonth;
 
     // Firebase & Data
     private DatabaseReference mDatabase;
+    private MealStore mealStore;
     private FirebaseAuth mAuth;
     private String currentMessCode, currentUserRole, currentUid;
-    private Calendar calendar;
+    private LocalDate selectedDate;
+    private MealConfig mealConfig; // Slots of the mess; nothing loads before it is known
 
     // Lists
     private ArrayList<MealHistoryItem> fullList = new ArrayList<>();
-    private ArrayList<MealHistoryItem> displayList = new ArrayList<>();
+    private NameSearch fullListSearch; // Index over fullList's names; null = no search (member view)
     private MealHistoryAdapter adapter;
 
+    // Search: debounced, run on the mapper thread; only the newest request gets shown
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable debouncedFilter = () -> filter(etSearchMember.getText().toString());
+    private NameSearch rosterSearch;   // Built once per roster load
+    private int filterGeneration;
+
+    // Live day sheet (manager): child events patch one row and the totals
+    private DaySheet daySheet;
+    private boolean liveMode, resumeLive, publishPending;
+    private ListenerRegistry.Subscription liveSubscription;
+
+    // Month grid
+    private MealMatrixAdapter matrixAdapter;
+    private MealMatrix shownMatrix;
+    private NameSearch matrixSearch;
+    private GridLayoutManager gridManager;
+    private boolean monthMode = false;
+    private int cellWidthPx;
+
     // Cache for User Names (UID -> Name)
-    private Map<String, String> userMap = new HashMap<>();
+    private Map<String, String> userMap = new LinkedHashMap<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -60,24 +92,41 @@ public class Meal_History extends AppCompatActivity {
         mDatabase = FirebaseDatabase.getInstance().getReference();
         currentUid = mAuth.getCurrentUser().getUid();
 
-        currentMessCode = getIntent().getStringExtra("messCode");
-        currentUserRole = getIntent().getStringExtra("role");
+        currentMessCode = Session.messCode(this);
+        currentUserRole = Session.role(this);
 
         // 2. Bind Views
         etSelectDate = findViewById(R.id.etSelectDate);
         etSearchMember = findViewById(R.id.etSearchMember);
-        lvExpense = findViewById(R.id.lvExpense);
+        rvMealHistory = findViewById(R.id.rvMealHistory);
         icOpenCalendar = findViewById(R.id.icOpenCalendar);
+        tvToggleMonth = findViewById(R.id.tvToggleMonth);
+        tvToggleLive = findViewById(R.id.tvToggleLive);
+        tvDayTotals = findViewById(R.id.tvDayTotals);
+        headerRows = findViewById(R.id.headerRows);
+        tvHeaderSlot = findViewById(R.id.tvHeaderSlot);
+        monthContainer = findViewById(R.id.monthContainer);
+        rvMealMonth = findViewById(R.id.rvMealMonth);
 
         // Parent layout of the search bar (to hide it for members)
         // Note: You didn't give the Linear Layout an ID in XML, so we find it by the EditText's parent
         searchContainer = (LinearLayout) etSearchMember.getParent();
 
         // 3. Setup Adapter
-        adapter = new MealHistoryAdapter(this, displayList);
-        lvExpense.setAdapter(adapter);
-
-        calendar = Calendar.getInstance();
+        adapter = new MealHistoryAdapter();
+        rvMealHistory.setLayoutManager(new LinearLayoutManager(this));
+        rvMealHistory.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        rvMealHistory.setHasFixedSize(true);
+        rvMealHistory.setAdapter(adapter);
+
+        matrixAdapter = new MealMatrixAdapter();
+        gridManager = new GridLayoutManager(this, matrixAdapter.spanCount());
+        gridManager.setSpanSizeLookup(matrixAdapter.spanSizeLookup());
+        rvMealMonth.setLayoutManager(gridManager);
+        rvMealMonth.setAdapter(matrixAdapter);
+        cellWidthPx = (int) (36 * getResources().getDisplayMetrics().density);
+
+        selectedDate = LocalDate.now();
         updateDateLabel();
 
         // 4. Permission & UI Setup
@@ -86,56 +135,121 @@ public class Meal_History extends AppCompatActivity {
         // 5. Listeners
         etSelectDate.setOnClickListener(v -> showDatePicker());
         icOpenCalendar.setOnClickListener(v -> showDatePicker());
+        tvToggleMonth.setOnClickListener(v -> toggleMonthMode());
+        tvToggleLive.setOnClickListener(v -> toggleLiveMode());
 
         etSearchMember.addTextChangedListener(new TextWatcher() {
             @Override
-            public void afterTextChanged(Editable s) { filter(s.toString()); }
+            public void afterTextChanged(Editable s) {
+                handler.removeCallbacks(debouncedFilter);
+                handler.postDelayed(debouncedFilter, SEARCH_DEBOUNCE_MS);
+            }
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
             @Override public void onTextChanged(CharSequence s, int start, int before, int count) {}
         });
 
         // 6. Initial Load
         if (currentMessCode != null) {
-            refreshData();
+            mealStore = new MealStore(mDatabase, currentMessCode);
+            MessDataStore.get(currentMessCode).mealConfig().observe(this, config -> {
+                if (config.equals(mealConfig)) return;
+                mealConfig = config;
+                SlotColumns.header(tvHeaderSlot, config);
+                refreshData();
+            });
         } else {
             Toast.makeText(this, "Mess Code Missing", Toast.LENGTH_SHORT).show();
         }
     }
 
+    // Nothing listens behind a hidden screen; coming back reloads, since entries may
+    // have been removed while no listener was attached
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (resumeLive) {
+            resumeLive = false;
+            refreshData();
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (liveSubscription != null) {
+            stopLive();
+            resumeLive = true;
+        }
+    }
+
+    private boolean isManager() {
+        return "Manager".equalsIgnoreCase(currentUserRole);
+    }
+
     private void setupRoleUI() {
-        if ("Manager".equalsIgnoreCase(currentUserRole)) {
+        if (isManager()) {
             // Manager: Show search, see everyone
             searchContainer.setVisibility(View.VISIBLE);
         } else {
             // Member: Hide search, see only self
             searchContainer.setVisibility(View.GONE);
         }
+        updateDayControls();
+    }
+
+    // Live toggle and day totals belong to the manager's day sheet
+    private void updateDayControls() {
+        boolean daySheetShown = isManager() && !monthMode;
+        tvToggleLive.setVisibility(daySheetShown ? View.VISIBLE : View.GONE);
+        tvDayTotals.setVisibility(daySheetShown ? View.VISIBLE : View.GONE);
+        tvToggleLive.setText(liveMode ? "Live: on" : "Live: off");
+    }
+
+    private void toggleLiveMode() {
+        liveMode = !liveMode;
+        updateDayControls();
+        if (liveMode) refreshData(); // Swaps the one-shot read for the listener
+        else stopLive();
+    }
+
+    private void toggleMonthMode() {
+        monthMode = !monthMode;
+        tvToggleMonth.setText(monthMode ? "Day" : "Month");
+        headerRows.setVisibility(monthMode ? View.GONE : View.VISIBLE);
+        rvMealHistory.setVisibility(monthMode ? View.GONE : View.VISIBLE);
+        monthContainer.setVisibility(monthMode ? View.VISIBLE : View.GONE);
+        if (monthMode) stopLive();
+        updateDayControls();
+        updateDateLabel();
+        refreshData();
     }
 
     private void showDatePicker() {
+        // DatePickerDialog months are 0-based, LocalDate months are 1-based
         new DatePickerDialog(this, (view, year, month, day) -> {
-            calendar.set(Calendar.YEAR, year);
-            calendar.set(Calendar.MONTH, month);
-            calendar.set(Calendar.DAY_OF_MONTH, day);
+            selectedDate = LocalDate.of(year, month + 1, day);
             updateDateLabel();
             refreshData(); // Reload when date changes
-        }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
+        }, selectedDate.getYear(), selectedDate.getMonthValue() - 1, selectedDate.getDayOfMonth()).show();
     }
 
     private void updateDateLabel() {
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-        etSelectDate.setText(sdf.format(calendar.getTime()));
+        // In month mode any day picks its whole month
+        String dateKey = getSelectedDateKey();
+        etSelectDate.setText(monthMode ? DateKeys.displayMonth(DateKeys.month(dateKey)) : DateKeys.display(dateKey));
     }
 
     private String getSelectedDateKey() {
         // Matches DB Format: yyyy-MM-dd
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-        return sdf.format(calendar.getTime());
+        return DateKeys.key(selectedDate);
     }
 
     private void refreshData() {
+        if (mealConfig == null) return; // Loads as soon as the slots arrive
         if ("Manager".equalsIgnoreCase(currentUserRole)) {
             loadManagerData();
+        } else if (monthMode) {
+            loadMemberMonth();
         } else {
             loadMemberData();
         }
@@ -143,94 +257,157 @@ public class Meal_History extends AppCompatActivity {
 
     // --- MANAGER LOGIC (See Everyone) ---
     private void loadManagerData() {
-        // Step 1: Fetch ALL users in this mess to build the roster
-        mDatabase.child("users").orderByChild("messCode").equalTo(currentMessCode)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        userMap.clear();
-                        for (DataSnapshot userSnap : snapshot.getChildren()) {
-                            String uid = userSnap.getKey();
-                            String name = userSnap.child("name").getValue(String.class);
-                            if (name == null) name = "Unknown";
-                            userMap.put(uid, name);
-                        }
-                        // Step 2: Once roster is ready, fetch meal data
-                        fetchMealsForDateAndCombine();
-                    }
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
-                });
+        // Step 1: Roster comes from the shared cache, so date changes cost no roster read
+        RosterCache.get(mDatabase, currentMessCode, new RosterCache.Callback() {
+            @Override
+            public void onRoster(List<RosterCache.Member> roster) {
+                userMap.clear();
+                for (RosterCache.Member member : roster) {
+                    userMap.put(member.uid, member.name);
+                }
+                // Same roster as last time (date change, month toggle): keep the search index
+                List<String> names = new ArrayList<>(userMap.values());
+                if (rosterSearch == null || !rosterSearch.covers(names)) rosterSearch = new NameSearch(names);
+                // Step 2: Once roster is ready, fetch meal data
+                if (monthMode) fetchMonthForRoster();
+                else fetchMealsForDateAndCombine();
+            }
+            @Override
+            public void onError(String message) {
+                Toast.makeText(Meal_History.this, "Failed to load members", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void fetchMealsForDateAndCombine() {
         String dateKey = getSelectedDateKey();
+        Map<String, String> roster = new LinkedHashMap<>(userMap);
+        NameSearch search = rosterSearch; // Rows come out in roster order
+        MealConfig config = mealConfig;
+        stopLive();
+
+        if (liveMode) {
+            // Rows start at zero; the listener's first onChildAdded calls fill in the day
+            SnapshotMappers.mapAsync(() -> new DaySheet(dateKey, config.size(), SnapshotMappers.mealRows(roster, null, config)), sheet -> {
+                if (!liveMode || monthMode || !dateKey.equals(getSelectedDateKey())) return;
+                showDaySheet(sheet, search);
+                startLive(sheet);
+            });
+            return;
+        }
 
-        mDatabase.child("mess").child(currentMessCode).child("meals").child(dateKey)
+        mealStore.dayRef(dateKey)
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        fullList.clear();
+                        // Rows are built on the parser thread from one getValue() of the day.
+                        // Every roster member gets a row, even users who didn't eat (all zeros).
+                        SnapshotMappers.mapAsync(() -> new DaySheet(dateKey, config.size(), SnapshotMappers.mealRows(roster, snapshot.getValue(), config)), sheet -> {
+                            // The date (or mode) may have changed while this was parsing
+                            if (liveMode || !dateKey.equals(getSelectedDateKey())) return;
+                            showDaySheet(sheet, search);
+                        });
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {}
+                });
+    }
 
-                        // Loop through ALL users in our roster (userMap)
-                        // This ensures even users who didn't eat show up as 0/0/0
-                        for (Map.Entry<String, String> entry : userMap.entrySet()) {
-                            String uid = entry.getKey();
-                            String name = entry.getValue();
+    private void showDaySheet(DaySheet sheet, NameSearch search) {
+        daySheet = sheet;
+        fullList = sheet.rows();
+        fullListSearch = search;
+        showDayTotals();
+        // Update UI
+        filter(etSearchMember.getText().toString());
+    }
 
-                            double b = 0, l = 0, d = 0;
+    private void showDayTotals() {
+        double[] totals = new double[daySheet.slotCount()];
+        for (int slot = 0; slot < totals.length; slot++) totals[slot] = daySheet.total(slot);
+        tvDayTotals.setText("Day total:  " + MealHistoryAdapter.formatSplit(mealConfig, totals, "  |  ")
+                + "  |  " + MealHistoryAdapter.formatValue(daySheet.grandTotal()) + " meals");
+    }
 
-                            // Check if this UID has entries in the meals node
-                            if (snapshot.hasChild(uid)) {
-                                DataSnapshot mealSnap = snapshot.child(uid);
-                                Double bVal = mealSnap.child("breakfast").getValue(Double.class);
-                                Double lVal = mealSnap.child("lunch").getValue(Double.class);
-                                Double dVal = mealSnap.child("dinner").getValue(Double.class);
+    // --- LIVE DAY SHEET ---
+    // Child events on meals/{date}: only the member whose entry changed crosses the wire.
+    // Values go through the mapper queue (keeps Firebase's order); re-attaching replays
+    // current children as adds, and apply() treats every event as an upsert.
+    private void startLive(DaySheet sheet) {
+        liveSubscription = ListenerRegistry.get().observeChildren(mealStore.dayRef(sheet.dateKey), new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                onLiveEntry(sheet, snapshot);
+            }
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                onLiveEntry(sheet, snapshot);
+            }
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                String uid = snapshot.getKey();
+                SnapshotMappers.mapAsync(() -> new double[sheet.slotCount()], slots -> applyLive(sheet, uid, slots));
+            }
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {}
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                // Firebase has dropped the listener; show the toggle as off so it can be retried
+                stopLive();
+                liveMode = false;
+                updateDayControls();
+                Toast.makeText(Meal_History.this, "Live updates stopped: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
-                                if (bVal != null) b = bVal;
-                                if (lVal != null) l = lVal;
-                                if (dVal != null) d = dVal;
-                            }
+    private void stopLive() {
+        if (liveSubscription != null) {
+            liveSubscription.remove();
+            liveSubscription = null;
+        }
+    }
 
-                            fullList.add(new MealHistoryItem(uid, name, b, l, d));
-                        }
+    private void onLiveEntry(DaySheet sheet, DataSnapshot snapshot) {
+        String uid = snapshot.getKey();
+        SnapshotMappers.mapAsync(() -> MealEncoding.decode(snapshot.getValue(), sheet.slotCount()), slots -> applyLive(sheet, uid, slots));
+    }
 
-                        // Update UI
-                        filter(etSearchMember.getText().toString());
-                    }
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {}
-                });
+    private void applyLive(DaySheet sheet, String uid, double[] slots) {
+        if (sheet != daySheet || !sheet.apply(uid, slots)) return; // Old date, or no change
+        // The first burst after subscribing is one add per entry: show it in one go
+        if (publishPending) return;
+        publishPending = true;
+        handler.post(() -> {
+            publishPending = false;
+            if (daySheet == null || monthMode) return;
+            fullList = daySheet.rows();
+            showDayTotals();
+            filter(etSearchMember.getText().toString());
+        });
     }
 
     // --- MEMBER LOGIC (See Only Self) ---
     private void loadMemberData() {
         String dateKey = getSelectedDateKey();
         String uid = currentUid;
+        MealConfig config = mealConfig;
 
-        // Fetch just this single node
-        mDatabase.child("mess").child(currentMessCode).child("meals").child(dateKey).child(uid)
+        // Fetch just this single node from the member's own index
+        mealStore.entryRef(uid, dateKey)
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        fullList.clear();
-
-                        double b = 0, l = 0, d = 0;
-                        if (snapshot.exists()) {
-                            Double bVal = snapshot.child("breakfast").getValue(Double.class);
-                            Double lVal = snapshot.child("lunch").getValue(Double.class);
-                            Double dVal = snapshot.child("dinner").getValue(Double.class);
-
-                            if (bVal != null) b = bVal;
-                            if (lVal != null) l = lVal;
-                            if (dVal != null) d = dVal;
-                        }
+                        double[] slots = SnapshotMappers.meals(snapshot.getValue(), config);
 
                         // We need the user's own name (fetch from Auth or DB if needed, simplified here)
                         String myName = mAuth.getCurrentUser().getDisplayName();
                         if (myName == null) myName = "Me";
 
-                        fullList.add(new MealHistoryItem(uid, myName, b, l, d));
+                        fullList = new ArrayList<>();
+                        fullList.add(new MealHistoryItem(uid, myName, slots));
+                        fullListSearch = null;
+                        daySheet = null;
 
                         // Show it
                         filter("");
@@ -240,19 +417,99 @@ public class Meal_History extends AppCompatActivity {
                 });
     }
 
+    // --- MONTH GRID (one range read for the whole month) ---
+    private void fetchMonthForRoster() {
+        String monthKey = DateKeys.month(getSelectedDateKey());
+        Map<String, String> roster = new LinkedHashMap<>(userMap);
+        NameSearch search = rosterSearch;
+        MealConfig config = mealConfig;
+
+        // meals/{first day..last day} in one bounded read instead of one read per date
+        mealStore.dayRangeQuery(DateKeys.monthStart(monthKey), DateKeys.monthEnd(monthKey))
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        SnapshotMappers.mapAsync(() -> MealMatrix.fromDayNodes(monthKey, config, roster, snapshot.getValue()),
+                                matrix -> showMatrix(matrix, search));
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Toast.makeText(Meal_History.this, "Failed to load month", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    private void loadMemberMonth() {
+        String monthKey = DateKeys.month(getSelectedDateKey());
+        String myName = mAuth.getCurrentUser().getDisplayName();
+        String name = myName == null ? "Me" : myName;
+        MealConfig config = mealConfig;
+
+        // The member's own index, same month range
+        mealStore.memberRef(currentUid).orderByKey()
+                .startAt(DateKeys.monthStart(monthKey)).endAt(DateKeys.monthEnd(monthKey))
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        SnapshotMappers.mapAsync(() -> MealMatrix.fromMemberNode(monthKey, config, currentUid, name, snapshot.getValue()),
+                                matrix -> showMatrix(matrix, null));
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        Toast.makeText(Meal_History.this, "Failed to load month", Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    private void showMatrix(MealMatrix matrix, NameSearch search) {
+        // Ignore a month that is no longer selected
+        if (!monthMode || !matrix.monthKey.equals(DateKeys.month(getSelectedDateKey()))) return;
+        shownMatrix = matrix;
+        matrixSearch = search;
+        filter(etSearchMember.getText().toString());
+    }
+
+    private void showMatrixRows(MealMatrix matrix, int[] rows) {
+        boolean newMatrix = matrixAdapter.matrix() != matrix;
+        matrixAdapter.setMatrix(matrix, rows);
+        if (!newMatrix) return;
+        gridManager.setSpanCount(matrixAdapter.spanCount());
+
+        // Wide enough for every column; the HorizontalScrollView scrolls it sideways
+        ViewGroup.LayoutParams params = rvMealMonth.getLayoutParams();
+        params.width = cellWidthPx * matrixAdapter.spanCount();
+        rvMealMonth.setLayoutParams(params);
+    }
+
     // --- SEARCH FILTER ---
+    // Matching runs on the mapper thread against the roster's NameSearch (no per-keystroke
+    // lowercasing or full rescans). Newer keystrokes or loads make older results stale.
+    // The day list gets a new list and diffs it in the background, so only rows whose
+    // content changed are rebound.
     private void filter(String text) {
-        displayList.clear();
-        if (text.isEmpty()) {
-            displayList.addAll(fullList);
-        } else {
-            text = text.toLowerCase();
-            for (MealHistoryItem item : fullList) {
-                if (item.userName.toLowerCase().contains(text)) {
-                    displayList.add(item);
-                }
-            }
+        handler.removeCallbacks(debouncedFilter);
+        int generation = ++filterGeneration;
+
+        if (monthMode) {
+            MealMatrix matrix = shownMatrix;
+            NameSearch search = matrixSearch;
+            if (matrix == null) return;
+            SnapshotMappers.mapAsync(() -> search == null ? null : search.filter(text), rows -> {
+                if (generation == filterGeneration && monthMode) showMatrixRows(matrix, rows);
+            });
+            return;
         }
-        adapter.notifyDataSetChanged();
+
+        ArrayList<MealHistoryItem> rows = fullList;
+        NameSearch search = fullListSearch;
+        SnapshotMappers.mapAsync(() -> {
+            if (search == null) return new ArrayList<>(rows);
+            int[] hits = search.filter(text);
+            ArrayList<MealHistoryItem> displayList = new ArrayList<>(hits.length);
+            for (int m : hits) displayList.add(rows.get(m));
+            return displayList;
+        }, displayList -> {
+            if (generation == filterGeneration && !monthMode) adapter.submitList(displayList);
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Active / inactive member counters, so the directory header never counts the roster.
+// Path: mess/{code}/memberCounts/active and .../inactive
+// Joining adds to active in the same update that writes the roster entry (SignUp).
+// schema/memberCounts marks messes whose counters are complete; older messes get them
+// counted once from the roster (backfillIfNeeded).
+public class MemberCounts {
+
+    private static final String TAG = "MemberCounts";
+    static final int SCHEMA_VERSION = 1;
+
+    public static final String NODE = "memberCounts";
+    public static final String ACTIVE = "active";
+    public static final String INACTIVE = "inactive";
+
+    // One member going from one status to the other
+    public static void putMove(Map<String, Object> updates, String fromStatus, String toStatus) {
+        if (fromStatus.equals(toStatus)) return;
+        updates.put(NODE + "/" + fromStatus, ServerValue.increment(-1));
+        updates.put(NODE + "/" + toStatus, ServerValue.increment(1));
+    }
+
+    public static long count(DataSnapshot counts, String status) {
+        Object val = counts.child(status).getValue();
+        return val instanceof Number ? ((Number) val).longValue() : 0;
+    }
+
+    // Counts the roster (and the archive) once for messes from before the counters, then
+    // marks the schema. The count goes in through CounterRebuild, so a member joining while
+    // the roster is read is neither lost nor counted twice.
+    public static void backfillIfNeeded(DatabaseReference messRef) {
+        messRef.child("schema").child(NODE).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Long version = snapshot.getValue(Long.class);
+                if (version != null && version >= SCHEMA_VERSION) return;
+                CounterRebuild.run(messRef.child(NODE), sums -> countRoster(messRef, sums), ok -> {
+                    if (!ok) return;
+                    messRef.child("schema").child(NODE).setValue(SCHEMA_VERSION)
+                            .addOnFailureListener(e -> Log.w(TAG, "Member count schema mark failed", e));
+                });
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Schema check failed: " + error.getMessage());
+            }
+        });
+    }
+
+    // Active = roster entries; inactive = the archive plus entries older builds marked inactive
+    private static void countRoster(DatabaseReference messRef, CounterRebuild.Sums sums) {
+        messRef.child("roster").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot roster) {
+                long inactive = 0;
+                for (DataSnapshot member : roster.getChildren()) {
+                    if (INACTIVE.equalsIgnoreCase(member.child("status").getValue(String.class))) inactive++;
+                }
+                long active = roster.getChildrenCount() - inactive;
+                long marked = inactive;
+                messRef.child(MemberLifecycle.ARCHIVE).addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot archive) {
+                        Map<String, Object> counts = new HashMap<>();
+                        counts.put(ACTIVE, active);
+                        counts.put(INACTIVE, marked + archive.getChildrenCount());
+                        sums.onSums(counts);
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        sums.onSums(null);
+                    }
+                });
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                sums.onSums(null);
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// What Member_List shows: the active roster sorted by name, with each member's
+// month-to-date meals and running balance worked out from the month counters (mealTotals,
+// expenseTotals, depositTotals, bills) and last month's closing balances (Balances) -
+// never from meal entries or expenses.
+// Rows are built only for the part of the list that is shown (rows(count)), so a counter
+// update costs one page of arithmetic however many members the mess has had.
+public class MemberDirectory {
+
+    public static final class Row {
+        final String uid, name, joined;
+        final double meals, balance;
+
+        Row(String uid, String name, String joined, double meals, double balance) {
+            this.uid = uid;
+            this.name = name;
+            this.joined = joined;
+            this.meals = meals;
+            this.balance = balance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Row)) return false;
+            Row r = (Row) o;
+            return uid.equals(r.uid) && Objects.equals(name, r.name) && Objects.equals(joined, r.joined)
+                    && meals == r.meals && Math.round(balance) == Math.round(r.balance);
+        }
+
+        @Override
+        public int hashCode() {
+            return uid.hashCode();
+        }
+    }
+
+    private List<RosterCache.Member> members = new ArrayList<>();
+    private Map<String, Double> meals = new HashMap<>();
+    private Map<String, Double> deposits = new HashMap<>();
+    private Map<String, Double> carried = new HashMap<>(); // Closing balances of last month
+    private double messMeals, grocery, other, fixedBills;
+    private int sharers; // SettlementEngine.sharers(), kept up to date by the setters
+
+    // Active members only, sorted once per roster load
+    public void setRoster(List<RosterCache.Member> roster) {
+        List<RosterCache.Member> active = new ArrayList<>();
+        for (RosterCache.Member member : roster) {
+            if (!MemberCounts.INACTIVE.equalsIgnoreCase(member.status)) active.add(member);
+        }
+        Collections.sort(active, (a, b) -> a.name.compareToIgnoreCase(b.name));
+        members = active;
+        countSharers();
+    }
+
+    public void setMeals(Map<String, Double> perMember, double mess) {
+        meals = perMember;
+        messMeals = mess;
+        countSharers();
+    }
+
+    public void setExpenses(double groceryTotal, double otherTotal) {
+        grocery = groceryTotal;
+        other = otherTotal;
+    }
+
+    public void setDeposits(Map<String, Double> perMember) {
+        deposits = perMember;
+        countSharers();
+    }
+
+    public void setCarried(Map<String, Double> closingBalances) {
+        carried = closingBalances;
+    }
+
+    public void setFixedBills(double total) {
+        fixedBills = total;
+    }
+
+    // Same head count as Month_Settlement: members who left but ate or deposited this month still share
+    private void countSharers() {
+        sharers = SettlementEngine.sharers(members, meals.keySet(), deposits.keySet()).size();
+    }
+
+    public RosterCache.Member find(String uid) {
+        for (RosterCache.Member member : members) {
+            if (member.uid.equals(uid)) return member;
+        }
+        return null;
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    // The first count rows (fewer if the roster is shorter)
+    public List<Row> rows(int count) {
+        int n = Math.min(count, members.size());
+        List<Row> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RosterCache.Member member = members.get(i);
+            double mine = valueOf(meals, member.uid);
+            double balance = SettlementEngine.memberBalance(mine, valueOf(deposits, member.uid),
+                    messMeals, sharers, grocery, other, fixedBills);
+            balance += Balances.carriedOf(carried, member.uid);
+            rows.add(new Row(member.uid, member.name, member.joined, mine, balance));
+        }
+        return rows;
+    }
+
+    private static double valueOf(Map<String, Double> values, String uid) {
+        Double value = values.get(uid);
+        return value == null ? 0 : value;
+    }
+}
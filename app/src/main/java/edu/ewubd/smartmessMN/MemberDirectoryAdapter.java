@@ -0,0 +1,85 @@
+package edu.ewubd.smartmessMN;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+public class MemberDirectoryAdapter extends StableListAdapter<MemberDirectory.Row, MemberDirectoryAdapter.ViewHolder> {
+
+    public interface OnMemberLongClickListener {
+        void onMemberLongClick(MemberDirectory.Row row);
+    }
+
+    private OnMemberLongClickListener longClickListener;
+
+    public MemberDirectoryAdapter() {
+        super(DIFF);
+    }
+
+    public void setOnMemberLongClickListener(OnMemberLongClickListener listener) {
+        this.longClickListener = listener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.activity_row_member_list, parent, false);
+        ViewHolder holder = new ViewHolder(view);
+        view.setOnLongClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (longClickListener == null || position == RecyclerView.NO_POSITION) return false;
+            longClickListener.onMemberLongClick(getItem(position));
+            return true;
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        MemberDirectory.Row row = getItem(position);
+        holder.tvName.setText(row.name);
+        holder.tvMeals.setText(MealHistoryAdapter.formatValue(row.meals));
+
+        long balance = Math.round(row.balance);
+        holder.tvBalance.setText("TK. " + balance);
+        holder.tvBalance.setTextColor(balance < 0 ? 0xFFC62828 : 0xFF2E7D32);
+
+        // Joined shown as dd/MM, like the old design
+        holder.tvDate.setText(row.joined == null || row.joined.length() < 10
+                ? "-" : row.joined.substring(8, 10) + "/" + row.joined.substring(5, 7));
+    }
+
+    @Override
+    protected String keyOf(MemberDirectory.Row row) {
+        return row.uid;
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvName, tvMeals, tvBalance, tvDate;
+
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.tv_row_name);
+            tvMeals = itemView.findViewById(R.id.tv_row_meals);
+            tvBalance = itemView.findViewById(R.id.tv_row_balance);
+            tvDate = itemView.findViewById(R.id.tv_row_date);
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<MemberDirectory.Row> DIFF = new DiffUtil.ItemCallback<MemberDirectory.Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MemberDirectory.Row a, @NonNull MemberDirectory.Row b) {
+            return a.uid.equals(b.uid);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull MemberDirectory.Row a, @NonNull MemberDirectory.Row b) {
+            return a.equals(b);
+        }
+    };
+}
@@ -0,0 +1,194 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// In-memory name search over a mess roster, for the member field in Add_Expenses.
+// - Every lowercase word of a name (and the whole name) goes into one sorted array, so a
+//   prefix lookup is a binary search plus a short scan.
+// - If prefixes don't fill the result, names are matched with a bounded prefix edit
+//   distance (1 typo up to 4 letters, 2 after that), so "rhim" still finds "Rahim".
+// - Ties are broken by how recently the member paid for something, then by name.
+// Immutable once built: a new roster or new payers means a new index, which makes it
+// safe to query from the autocomplete filter thread.
+public final class MemberIndex {
+
+    public static final class Match {
+        public final String uid;
+        public final String name;
+        final int tier;     // 0 exact, 1 name prefix, 2 word prefix, 3+ typos
+        final int recency;  // Lower = paid more recently
+
+        Match(String uid, String name, int tier, int recency) {
+            this.uid = uid;
+            this.name = name;
+            this.tier = tier;
+            this.recency = recency;
+        }
+
+        @Override
+        public String toString() {
+            return name; // What AutoCompleteTextView puts in the field
+        }
+    }
+
+    private static final int NOT_RECENT = Integer.MAX_VALUE;
+
+    private final String[] uids;
+    private final String[] names;
+    private final String[] lowerNames;
+    private final int[] recency;      // By member
+    private final String[] tokens;    // Sorted
+    private final int[] tokenMember;  // Member of tokens[i]
+
+    // recentPayers: uids newest first (duplicates are fine)
+    public MemberIndex(List<RosterCache.Member> roster, List<String> recentPayers) {
+        int n = roster.size();
+        uids = new String[n];
+        names = new String[n];
+        lowerNames = new String[n];
+        recency = new int[n];
+
+        Map<String, Integer> rank = new HashMap<>();
+        if (recentPayers != null) {
+            for (String uid : recentPayers) {
+                if (uid != null && !rank.containsKey(uid)) rank.put(uid, rank.size());
+            }
+        }
+
+        List<String> tokenList = new ArrayList<>();
+        List<Integer> memberList = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            RosterCache.Member member = roster.get(i);
+            uids[i] = member.uid;
+            names[i] = member.name == null ? "" : member.name;
+            lowerNames[i] = normalize(names[i]);
+            Integer r = rank.get(member.uid);
+            recency[i] = r == null ? NOT_RECENT : r;
+
+            tokenList.add(lowerNames[i]);
+            memberList.add(i);
+            String[] words = lowerNames[i].split(" ");
+            if (words.length > 1) {
+                for (String word : words) {
+                    tokenList.add(word);
+                    memberList.add(i);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[tokenList.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> tokenList.get(a).compareTo(tokenList.get(b)));
+        tokens = new String[order.length];
+        tokenMember = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            tokens[i] = tokenList.get(order[i]);
+            tokenMember[i] = memberList.get(order[i]);
+        }
+    }
+
+    static String normalize(String s) {
+        return s.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    public int size() {
+        return uids.length;
+    }
+
+    // Exact (case/space-insensitive) name; null if there is none or it is ambiguous
+    public Match exact(String name) {
+        String q = normalize(name);
+        Match found = null;
+        for (int i = lowerNames.length - 1; i >= 0; i--) {
+            if (!lowerNames[i].equals(q)) continue;
+            if (found != null) return null;
+            found = new Match(uids[i], names[i], 0, recency[i]);
+        }
+        return found;
+    }
+
+    // Best matches first. An empty query lists recent payers.
+    public List<Match> search(String query, int limit) {
+        String q = normalize(query == null ? "" : query);
+        int[] best = new int[uids.length];
+        Arrays.fill(best, Integer.MAX_VALUE);
+
+        if (q.isEmpty()) {
+            for (int i = 0; i < uids.length; i++) if (recency[i] != NOT_RECENT) best[i] = 1;
+        } else {
+            // Prefix hits: binary search to the first token >= q, scan while it matches
+            int lo = lowerBound(q);
+            for (int t = lo; t < tokens.length && tokens[t].startsWith(q); t++) {
+                int m = tokenMember[t];
+                int tier = lowerNames[m].equals(q) ? 0 : tokens[t].equals(lowerNames[m]) ? 1 : 2;
+                if (tier < best[m]) best[m] = tier;
+            }
+
+            int found = 0;
+            for (int b : best) if (b != Integer.MAX_VALUE) found++;
+            if (found < limit && q.length() >= 2) {
+                int maxTypos = q.length() <= 4 ? 1 : 2;
+                for (int t = 0; t < tokens.length; t++) {
+                    int m = tokenMember[t];
+                    if (best[m] <= 2) continue;
+                    int d = prefixDistance(q, tokens[t], maxTypos);
+                    if (d <= maxTypos && 2 + d < best[m]) best[m] = 2 + d;
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < uids.length; i++) {
+            if (best[i] != Integer.MAX_VALUE) matches.add(new Match(uids[i], names[i], best[i], recency[i]));
+        }
+        Collections.sort(matches, (a, b) -> {
+            if (a.tier != b.tier) return Integer.compare(a.tier, b.tier);
+            if (a.recency != b.recency) return Integer.compare(a.recency, b.recency);
+            return a.name.compareToIgnoreCase(b.name);
+        });
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private int lowerBound(String q) {
+        int lo = 0, hi = tokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tokens[mid].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Fewest edits turning q into some prefix of token; gives up (returns max + 1) as soon
+    // as every cell of a row is over max
+    static int prefixDistance(String q, String token, int max) {
+        int cols = token.length() + 1;
+        int[] prev = new int[cols];
+        int[] cur = new int[cols];
+        // Row 0: empty query vs. the first j letters of the token
+        for (int j = 0; j < cols; j++) prev[j] = j;
+        for (int i = 1; i <= q.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            char qc = q.charAt(i - 1);
+            for (int j = 1; j < cols; j++) {
+                int cost = qc == token.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                if (cur[j] < rowMin) rowMin = cur[j];
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        int best = Integer.MAX_VALUE;
+        for (int v : prev) best = Math.min(best, v);
+        return best;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.ewubd.smartmessMN;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Member lifecycle: active -> inactive -> active again.
+// Path: mess/{code}/roster/{uid}          active members: what daily views, bulk entry
+//                                          and the month grid read
+//       mess/{code}/rosterArchive/{uid}   {name, role, joined, left, reason}
+// Deactivating moves the entry from the roster to the archive; reactivating moves it
+// back. Meals, expenses and deposits stay where they are (keyed by uid), so history
+// still adds up and names still resolve through the archive. Each move is one
+// multi-path update (entry out, entry in, counters), so a member is never in both
+// lists or in neither.
+public class MemberLifecycle {
+
+    public static final String ARCHIVE = "rosterArchive";
+
+    // Members whose move is queued but not acknowledged yet. A second move of the same
+    // member would apply the counter increments twice, so it waits for the first one.
+    private static final Set<String> moving = new HashSet<>();
+
+    public static class Archived {
+        public final String uid, name, role, joined, left, reason;
+
+        Archived(String uid, String name, String role, String joined, String left, String reason) {
+            this.uid = uid;
+            this.name = name;
+            this.role = role;
+            this.joined = joined;
+            this.left = left;
+            this.reason = reason;
+        }
+    }
+
+    // False if a move of this member is still in flight
+    public static synchronized boolean beginMove(String uid) {
+        return moving.add(uid);
+    }
+
+    public static synchronized void endMove(String uid) {
+        moving.remove(uid);
+    }
+
+    public static void putDeactivate(Map<String, Object> updates, RosterCache.Member member,
+                                     String leftDate, String reason) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("name", member.name);
+        entry.put("role", member.role);
+        entry.put("status", MemberCounts.INACTIVE);
+        if (member.joined != null) entry.put("joined", member.joined);
+        entry.put("left", leftDate);
+        if (reason != null && !reason.isEmpty()) entry.put("reason", reason);
+
+        updates.put("roster/" + member.uid, null);
+        updates.put(ARCHIVE + "/" + member.uid, entry);
+        MemberCounts.putMove(updates, MemberCounts.ACTIVE, MemberCounts.INACTIVE);
+    }
+
+    // Back with the original join date; the leave date and reason go with the archive entry
+    public static void putReactivate(Map<String, Object> updates, Archived member) {
+        updates.put(ARCHIVE + "/" + member.uid, null);
+        updates.put("roster/" + member.uid, RosterCache.rosterEntry(member.name, member.role, MemberCounts.ACTIVE, member.joined));
+        MemberCounts.putMove(updates, MemberCounts.INACTIVE, MemberCounts.ACTIVE);
+    }
+
+    // Most recently left first
+    public static List<Archived> parseArchive(DataSnapshot snapshot) {
+        List<Archived> members = new ArrayList<>();
+        for (DataSnapshot child : snapshot.getChildren()) {
+            String name = child.child("name").getValue(String.class);
+            members.add(new Archived(child.getKey(),
+                    name == null ? "Unknown" : name,
+                    child.child("role").getValue(String.class),
+                    child.child("joined").getValue(String.class),
+                    child.child("left").getValue(String.class),
+                    child.child("reason").getValue(String.class)));
+        }
+        Collections.sort(members, (a, b) -> String.valueOf(b.left).compareTo(String.valueOf(a.left)));
+        return members;
+    }
+}
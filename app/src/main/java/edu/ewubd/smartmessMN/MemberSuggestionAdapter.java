@@ -0,0 +1,88 @@
+package edu.ewubd.smartmessMN;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Dropdown for the member AutoCompleteTextView. Filtering is a MemberIndex query, run
+// on the filter's background thread; the index is swapped whole when roster or payers
+// change, so the filter never sees it half-built.
+public class MemberSuggestionAdapter extends BaseAdapter implements Filterable {
+
+    private static final int LIMIT = 8;
+
+    private volatile MemberIndex index;
+    private List<MemberIndex.Match> shown = new ArrayList<>();
+
+    public void setIndex(MemberIndex index) {
+        this.index = index;
+    }
+
+    public MemberIndex index() {
+        return index;
+    }
+
+    @Override
+    public int getCount() {
+        return shown.size();
+    }
+
+    @Override
+    public MemberIndex.Match getItem(int position) {
+        return shown.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return StableListAdapter.stableId(shown.get(position).uid);
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        if (convertView == null) {
+            convertView = LayoutInflater.from(parent.getContext())
+                    .inflate(android.R.layout.simple_dropdown_item_1line, parent, false);
+        }
+        ((TextView) convertView).setText(shown.get(position).name);
+        return convertView;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+
+    private final Filter filter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            FilterResults results = new FilterResults();
+            MemberIndex current = index;
+            List<MemberIndex.Match> matches = current == null
+                    ? new ArrayList<>()
+                    : current.search(constraint == null ? "" : constraint.toString(), LIMIT);
+            results.values = matches;
+            results.count = matches.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            shown = results.values == null ? new ArrayList<>() : (List<MemberIndex.Match>) results.values;
+            if (results.count > 0) notifyDataSetChanged();
+            else notifyDataSetInvalidated();
+        }
+
+        @Override
+        public CharSequence convertResultToString(Object resultValue) {
+            return ((MemberIndex.Match) resultValue).name;
+        }
+    };
+}
@@ -1,15 +1,55 @@
 package edu.ewubd.smartmessMN;
 
+import android.content.Context;
+import android.content.Intent;
 import android.os.Bundle;
+import android.widget.EditText;
+import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Member directory: the roster from the shared store, shown a page at a time, with each
+// member's month-to-date meals and balance (see MemberDirectory) and the member counters
+// on top. Everything here is a small counter node or the already-cached roster.
+// Managers long-press a member to deactivate them; the inactive card opens the archive.
 public class Member_List extends AppCompatActivity {
 
+    private static final int PAGE_SIZE = 40;
+    private static final int PREFETCH_ROWS = 10; // Load the next page this close to the end
+
+    // Views
+    private TextView tvActiveCount, tvInactiveCount, tvMemberPage;
+    private RecyclerView rvMembers;
+    private LinearLayoutManager layoutManager;
+
+    // Data
+    private String currentMessCode;
+    private MessDataStore store;
+    private final MemberDirectory directory = new MemberDirectory();
+    private MemberDirectoryAdapter adapter;
+    private int shownCount = PAGE_SIZE;
+    private boolean countsChecked; // Counter backfill looked at once per screen
+    private boolean countsLoaded;
+    private boolean isManager;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -20,5 +60,156 @@ public class Member_List extends AppCompatActivity {
             v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
             return insets;
         });
+
+        currentMessCode = Session.messCode(this);
+        if (currentMessCode == null) {
+            Toast.makeText(this, "Mess Code Missing", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+        store = MessDataStore.get(currentMessCode);
+        isManager = "Manager".equalsIgnoreCase(Session.role(this));
+
+        tvActiveCount = findViewById(R.id.tvActiveCount);
+        tvInactiveCount = findViewById(R.id.tvInactiveCount);
+        tvMemberPage = findViewById(R.id.tvMemberPage);
+        rvMembers = findViewById(R.id.rvMembers);
+
+        adapter = new MemberDirectoryAdapter();
+        layoutManager = new LinearLayoutManager(this);
+        rvMembers.setLayoutManager(layoutManager);
+        rvMembers.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        rvMembers.setHasFixedSize(true);
+        rvMembers.setAdapter(adapter);
+        rvMembers.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || shownCount >= directory.size()) return;
+                if (layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_ROWS) {
+                    shownCount += PAGE_SIZE;
+                    showPage();
+                }
+            }
+        });
+
+        if (isManager) adapter.setOnMemberLongClickListener(this::confirmDeactivate);
+        findViewById(R.id.cardInactive).setOnClickListener(v -> startActivity(new Intent(this, Inactive_Members.class)));
+
+        observeData();
+    }
+
+    // --- DATA ---
+    private void observeData() {
+        store.roster().observe(this, members -> {
+            directory.setRoster(members);
+            showPage();
+            if (!countsLoaded) showCounts(directory.size(), members.size() - directory.size());
+            if (!countsChecked && isManager) {
+                countsChecked = true;
+                MemberCounts.backfillIfNeeded(store.messRef());
+            }
+        });
+        store.memberCounts().observe(this, snapshot -> {
+            if (!snapshot.exists()) return; // Not counted yet: the roster numbers stand in
+            countsLoaded = true;
+            showCounts(MemberCounts.count(snapshot, MemberCounts.ACTIVE), MemberCounts.count(snapshot, MemberCounts.INACTIVE));
+        });
+
+        // Inputs of meals and balance per member, each one small counter node
+        String monthKey = DateKeys.currentMonth();
+        store.monthTotals(monthKey).observe(this, snapshot -> {
+            directory.setMeals(numbers(snapshot.child("members")), number(snapshot.child("mess")));
+            showPage();
+        });
+        store.expenseTotals(monthKey).observe(this, snapshot -> {
+            directory.setExpenses(number(snapshot.child("Grocery")), number(snapshot.child("Other")));
+            showPage();
+        });
+        store.depositTotals(monthKey).observe(this, snapshot -> {
+            directory.setDeposits(numbers(snapshot.child("members")));
+            showPage();
+        });
+        store.closingBalances(DateKeys.previousMonth(monthKey)).observe(this, snapshot -> {
+            directory.setCarried(Balances.parse(snapshot));
+            showPage();
+        });
+        store.monthBills(monthKey).observe(this, snapshot -> {
+            if (snapshot.exists()) {
+                directory.setFixedBills(Bills.total(Bills.parse(snapshot)));
+                showPage();
+            } else {
+                // Month not saved yet: last known bills stand in, like on the dashboard
+                Bills.carryForward(store.messRef(), monthKey, (amounts, fromMonth) -> {
+                    directory.setFixedBills(Bills.total(amounts));
+                    showPage();
+                });
+            }
+        });
+    }
+
+    // --- DEACTIVATION ---
+    private void confirmDeactivate(MemberDirectory.Row row) {
+        RosterCache.Member member = directory.find(row.uid);
+        if (member == null) return;
+        FirebaseUser me = FirebaseAuth.getInstance().getCurrentUser();
+        if (me != null && me.getUid().equals(member.uid)) {
+            Toast.makeText(this, "You can't deactivate yourself", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        EditText etReason = new EditText(this);
+        etReason.setHint("Reason (optional)");
+        new AlertDialog.Builder(this)
+                .setTitle("Deactivate " + member.name + "?")
+                .setMessage("They leave the daily lists and meal sheets. Their meals, expenses and deposits are kept.")
+                .setView(etReason)
+                .setPositiveButton("Deactivate", (d, w) -> deactivate(member, etReason.getText().toString().trim()))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void deactivate(RosterCache.Member member, String reason) {
+        if (!MemberLifecycle.beginMove(member.uid)) {
+            Toast.makeText(this, member.name + " is already being deactivated", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Map<String, Object> updates = new HashMap<>();
+        MemberLifecycle.putDeactivate(updates, member, DateKeys.today(), reason);
+
+        Context app = getApplicationContext();
+        String messCode = currentMessCode;
+        OutboxSync.writeMess(currentMessCode, updates, ok -> {
+            MemberLifecycle.endMove(member.uid);
+            if (ok) RosterCache.invalidate(messCode);
+            Toast.makeText(app, ok ? member.name + " deactivated"
+                    : "Deactivating " + member.name + " could not be synced", ok ? Toast.LENGTH_SHORT : Toast.LENGTH_LONG).show();
+        });
+        if (!OutboxSync.get().isConnected()) {
+            Toast.makeText(this, "Deactivating " + member.name + ", will sync when online", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void showCounts(long active, long inactive) {
+        tvActiveCount.setText(String.valueOf(active));
+        tvInactiveCount.setText(String.valueOf(inactive));
+    }
+
+    // Only the rows scrolled to so far are built; the adapter diffs them off the UI thread
+    private void showPage() {
+        List<MemberDirectory.Row> rows = directory.rows(shownCount);
+        adapter.submitList(rows);
+        tvMemberPage.setText(rows.size() < directory.size()
+                ? "Showing " + rows.size() + " of " + directory.size() + " - scroll for more"
+                : directory.size() + " members" + (isManager ? " - long-press one to deactivate" : ""));
+    }
+
+    private static double number(DataSnapshot snap) {
+        return SnapshotMappers.number(snap.getValue());
+    }
+
+    private static Map<String, Double> numbers(DataSnapshot parent) {
+        Map<String, Double> values = new HashMap<>();
+        for (DataSnapshot child : parent.getChildren()) values.put(child.getKey(), number(child));
+        return values;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package edu.ewubd.smartmessMN;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Locale;
+import java.util.Random;
+
+// Small index of every mess code: messCodes/{code} -> managerUid
+// Checking a code here is one leaf read, no matter how much history the mess has
+// (reading mess/{code} directly would download all its meals, expenses and bills).
+public class MessCodeRegistry {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Random RANDOM = new Random();
+
+    public interface LookupCallback {
+        void onResult(boolean exists);
+        void onError(String message);
+    }
+
+    public interface ReserveCallback {
+        void onReserved(String messCode);
+        void onError(String message);
+    }
+
+    private final DatabaseReference rootRef;
+
+    public MessCodeRegistry(DatabaseReference rootRef) {
+        this.rootRef = rootRef;
+    }
+
+    // --- EXISTENCE CHECK ---
+    public void exists(String messCode, LookupCallback callback) {
+        rootRef.child("messCodes").child(messCode).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (snapshot.exists()) {
+                    callback.onResult(true);
+                } else {
+                    // Messes created before the registry existed: check one leaf, not the subtree
+                    checkLegacyMess(messCode, callback);
+                }
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    private void checkLegacyMess(String messCode, LookupCallback callback) {
+        rootRef.child("mess").child(messCode).child("managerUid").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                String managerUid = snapshot.getValue(String.class);
+                if (managerUid != null) {
+                    // Backfill so the next lookup is a registry hit
+                    rootRef.child("messCodes").child(messCode).setValue(managerUid);
+                }
+                callback.onResult(managerUid != null);
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    // --- ATOMIC RESERVATION ---
+    // Claims a fresh random code for this manager. The transaction only commits if
+    // nobody else holds the code, so two managers can never end up with the same mess.
+    public void reserve(String managerUid, ReserveCallback callback) {
+        tryReserve(managerUid, 1, callback);
+    }
+
+    private void tryReserve(String managerUid, int attempt, ReserveCallback callback) {
+        if (attempt > MAX_ATTEMPTS) {
+            callback.onError("Could not allocate a mess code. Please try again.");
+            return;
+        }
+        String code = generateNumericCode();
+
+        // Legacy messes are not in the registry yet, so rule them out first
+        exists(code, new LookupCallback() {
+            @Override
+            public void onResult(boolean taken) {
+                if (taken) {
+                    tryReserve(managerUid, attempt + 1, callback);
+                } else {
+                    claim(code, managerUid, attempt, callback);
+                }
+            }
+            @Override
+            public void onError(String message) {
+                callback.onError(message);
+            }
+        });
+    }
+
+    private void claim(String code, String managerUid, int attempt, ReserveCallback callback) {
+        rootRef.child("messCodes").child(code).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData currentData) {
+                if (currentData.getValue() != null) {
+                    return Transaction.abort(); // Someone got there first
+                }
+                currentData.setValue(managerUid);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                if (error != null) {
+                    callback.onError(error.getMessage());
+                } else if (committed) {
+                    callback.onReserved(code);
+                } else {
+                    tryReserve(managerUid, attempt + 1, callback); // Collision retry
+                }
+            }
+        });
+    }
+
+    private static String generateNumericCode() {
+        int number;
+        synchronized (RANDOM) {
+            number = RANDOM.nextInt(1000000);
+        }
+        return String.format(Locale.US, "%06d", number);
+    }
+}
@@ -0,0 +1,159 @@
+package edu.ewubd.smartmessMN;
+
+import androidx.lifecycle.LiveData;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// In-process store shared by every screen of one mess.
+// Each stream is created once and then reused, so the profile, roster, today's menu,
+// bills, balance and expenses a screen needs are usually already in memory when it
+// opens. Screens observe them as LiveData; only changes come over the wire.
+public class MessDataStore {
+
+    private static final Map<String, MessDataStore> stores = new HashMap<>();
+    private static final Map<String, LiveData<DataSnapshot>> profiles = new HashMap<>();
+
+    private final String messCode;
+    private final DatabaseReference rootRef;
+    private final DatabaseReference messRef;
+    private final Map<String, LiveData<?>> streams = new HashMap<>();
+    private ExpenseFeed expenseFeed;
+
+    private MessDataStore(String messCode) {
+        this.messCode = messCode;
+        this.rootRef = FirebaseDatabase.getInstance().getReference();
+        this.messRef = rootRef.child("mess").child(messCode);
+    }
+
+    public static synchronized MessDataStore get(String messCode) {
+        MessDataStore store = stores.get(messCode);
+        if (store == null) {
+            store = new MessDataStore(messCode);
+            stores.put(messCode, store);
+        }
+        return store;
+    }
+
+    // users/{uid} does not belong to a mess, so profiles are cached by uid
+    public static synchronized LiveData<DataSnapshot> profile(String uid) {
+        LiveData<DataSnapshot> profile = profiles.get(uid);
+        if (profile == null) {
+            DatabaseReference ref = FirebaseDatabase.getInstance().getReference().child("users").child(uid);
+            profile = new FirebaseLiveData<>(ref.toString(), ref, snapshot -> snapshot);
+            profiles.put(uid, profile);
+        }
+        return profile;
+    }
+
+    public String messCode() {
+        return messCode;
+    }
+
+    public DatabaseReference rootRef() {
+        return rootRef;
+    }
+
+    public DatabaseReference messRef() {
+        return messRef;
+    }
+
+    // --- STREAMS ---
+
+    public LiveData<List<RosterCache.Member>> roster() {
+        return stream("roster", messRef.child("roster"), snapshot -> {
+            List<RosterCache.Member> members = RosterCache.parse(snapshot);
+            RosterCache.put(messCode, members); // Keep one-shot readers fresh too
+            return members;
+        });
+    }
+
+    // Deactivated members (see MemberLifecycle); only the archive screen and settlement need it
+    public LiveData<List<MemberLifecycle.Archived>> rosterArchive() {
+        return stream(MemberLifecycle.ARCHIVE, messRef.child(MemberLifecycle.ARCHIVE), MemberLifecycle::parseArchive);
+    }
+
+    public LiveData<DataSnapshot> memberCounts() {
+        return snapshots(MemberCounts.NODE, messRef.child(MemberCounts.NODE));
+    }
+
+    // Slots of this mess; DEFAULT until (or unless) the mess has saved its own
+    public LiveData<MealConfig> mealConfig() {
+        return stream(MealConfig.NODE, messRef.child(MealConfig.NODE), snapshot -> MealConfig.from(snapshot.getValue()));
+    }
+
+    public LiveData<DataSnapshot> menu(String dateKey) {
+        return snapshots("menu/" + dateKey, messRef.child("menu").child(dateKey));
+    }
+
+    // One month of bills; an unsaved month does not exist (see Bills.carryForward)
+    public LiveData<DataSnapshot> monthBills(String monthKey) {
+        return snapshots(Bills.NODE + "/" + monthKey, messRef.child(Bills.NODE).child(monthKey));
+    }
+
+    // Running balance kept by Ledger: one number, however long the history
+    public LiveData<DataSnapshot> balance() {
+        return snapshots(Ledger.NODE + "/balance", messRef.child(Ledger.NODE).child("balance"));
+    }
+
+    public LiveData<DataSnapshot> ledgerMonth(String monthKey) {
+        return snapshots(Ledger.NODE + "/months/" + monthKey, messRef.child(Ledger.NODE).child("months").child(monthKey));
+    }
+
+    public LiveData<DataSnapshot> mealEntry(String uid, String dateKey) {
+        return snapshots("memberMeals/" + uid + "/" + dateKey,
+                messRef.child(MealStore.BY_MEMBER).child(uid).child(dateKey));
+    }
+
+    public LiveData<DataSnapshot> monthTotals(String monthKey) {
+        return snapshots(MealStore.TOTALS + "/" + monthKey, messRef.child(MealStore.TOTALS).child(monthKey));
+    }
+
+    public LiveData<DataSnapshot> expenseTotals(String monthKey) {
+        return snapshots("expenseTotals/" + monthKey, messRef.child("expenseTotals").child(monthKey));
+    }
+
+    public LiveData<DataSnapshot> depositTotals(String monthKey) {
+        return snapshots(Deposits.TOTALS + "/" + monthKey, messRef.child(Deposits.TOTALS).child(monthKey));
+    }
+
+    // Balances carried out of one month (see Balances); missing until the month is closed
+    public LiveData<DataSnapshot> closingBalances(String monthKey) {
+        return snapshots(Balances.NODE + "/" + monthKey, messRef.child(Balances.NODE).child(monthKey));
+    }
+
+    public synchronized ExpenseFeed expenses() {
+        if (expenseFeed == null) {
+            expenseFeed = new ExpenseFeed(messRef.child("expenses"));
+        }
+        return expenseFeed;
+    }
+
+    // --- QUERIES ---
+
+    // Expenses dated fromKey..toKey (inclusive, ISO keys). Needs ".indexOn": ["date"]
+    // on mess/$code/expenses, otherwise the client filters the whole node.
+    public Query expensesBetween(String fromKey, String toKey) {
+        return messRef.child("expenses").orderByChild("date").startAt(fromKey).endAt(toKey);
+    }
+
+    private LiveData<DataSnapshot> snapshots(String name, DatabaseReference ref) {
+        return stream(name, ref, snapshot -> snapshot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> LiveData<T> stream(String name, DatabaseReference ref, FirebaseLiveData.Parser<T> parser) {
+        LiveData<?> live = streams.get(name);
+        if (live == null) {
+            live = new FirebaseLiveData<>(ref.toString(), ref, parser);
+            streams.put(name, live);
+        }
+        return (LiveData<T>) live;
+    }
+}
@@ -0,0 +1,294 @@
+package edu.ewubd.smartmessMN;
+
+import android.app.DatePickerDialog;
+import android.content.Context;
+import android.os.Bundle;
+import android.widget.ListView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Settlement of one month, the current one unless another is picked (tap the title).
+// Start with EXTRA_MONTH (yyyy-MM) to open a given month.
+// Balances include what each member carried out of the month before (Balances). A manager
+// opening a month that has ended closes it: the balances carried out of it are saved.
+public class Month_Settlement extends AppCompatActivity {
+
+    public static final String EXTRA_MONTH = "month";
+
+    // Views
+    private TextView tvTitle, tvMealRate, tvSummary;
+    private ListView lvSettlement;
+
+    // Firebase & Data
+    private DatabaseReference mDatabase;
+    private DatabaseReference messRef;
+    private String currentMessCode, monthKey;
+    private boolean isManager;
+
+    // Lists
+    private ArrayList<SettlementItem> rows = new ArrayList<>();
+    private SettlementAdapter adapter;
+
+    // Aggregates (each one small node)
+    private List<RosterCache.Member> roster;
+    private DataSnapshot archive; // Deactivated members, for anyone who left mid-month
+    private DataSnapshot mealTotals, expenseTotals, depositTotals;
+    private DataSnapshot carriedIn, closed; // closingBalances of the month before and of this one
+    private Map<String, Double> bills;
+    private int pendingReads;
+    private int loadId; // Bumped per load, so answers for an older load are dropped
+    private boolean loadFailed;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_month_settlement);
+
+        mDatabase = FirebaseDatabase.getInstance().getReference();
+        currentMessCode = Session.messCode(this);
+        isManager = "Manager".equalsIgnoreCase(Session.role(this));
+        monthKey = getIntent().getStringExtra(EXTRA_MONTH);
+        if (monthKey == null) monthKey = DateKeys.currentMonth();
+
+        tvTitle = findViewById(R.id.tv_settlement_title);
+        tvMealRate = findViewById(R.id.tv_meal_rate);
+        tvSummary = findViewById(R.id.tv_settlement_summary);
+        lvSettlement = findViewById(R.id.lvSettlement);
+
+        adapter = new SettlementAdapter(this, rows);
+        lvSettlement.setAdapter(adapter);
+
+        if (currentMessCode != null) {
+            messRef = mDatabase.child("mess").child(currentMessCode);
+            // After a failed load the title tap tries the same month again
+            tvTitle.setOnClickListener(v -> {
+                if (loadFailed) showMonth(monthKey);
+                else pickMonth();
+            });
+            showMonth(monthKey);
+        } else {
+            Toast.makeText(this, "Mess Code Missing", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // Any day of the month will do; only its month is used
+    private void pickMonth() {
+        LocalDate start = DateKeys.parse(DateKeys.monthStart(monthKey));
+        new DatePickerDialog(this, (view, year, month, day) ->
+                showMonth(DateKeys.month(DateKeys.key(year, month, day))),
+                start.getYear(), start.getMonthValue() - 1, 1).show();
+    }
+
+    private void showMonth(String month) {
+        monthKey = month;
+        tvTitle.setText("Settlement " + DateKeys.displayMonth(month));
+        rows.clear();
+        adapter.notifyDataSetChanged();
+        loadAggregates(month);
+    }
+
+    // --- DATA LOADING ---
+    // Roster, archive, four counter nodes + two closings. Nothing here grows with the number of days or receipts.
+    // A failed read still counts as done, so the screen always ends up settled or showing the error.
+    private void loadAggregates(String month) {
+        int load = ++loadId;
+        pendingReads = 8;
+        loadFailed = false;
+
+        RosterCache.get(mDatabase, currentMessCode, new RosterCache.Callback() {
+            @Override
+            public void onRoster(List<RosterCache.Member> members) {
+                if (load != loadId) return;
+                roster = members;
+                onReadDone();
+            }
+            @Override
+            public void onError(String message) {
+                if (load == loadId) onReadFailed("Failed to load members");
+            }
+        });
+
+        messRef.child(MemberLifecycle.ARCHIVE).addListenerForSingleValueEvent(new Reader(load) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (load != loadId) return;
+                archive = snapshot;
+                onReadDone();
+            }
+        });
+        messRef.child(MealStore.TOTALS).child(month).addListenerForSingleValueEvent(new Reader(load) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (load != loadId) return;
+                mealTotals = snapshot;
+                onReadDone();
+            }
+        });
+        messRef.child("expenseTotals").child(month).addListenerForSingleValueEvent(new Reader(load) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (load != loadId) return;
+                expenseTotals = snapshot;
+                onReadDone();
+            }
+        });
+        messRef.child(Deposits.TOTALS).child(month).addListenerForSingleValueEvent(new Reader(load) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (load != loadId) return;
+                depositTotals = snapshot;
+                onReadDone();
+            }
+        });
+        messRef.child(Balances.NODE).child(DateKeys.previousMonth(month)).addListenerForSingleValueEvent(new Reader(load) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (load != loadId) return;
+                carriedIn = snapshot;
+                onReadDone();
+            }
+        });
+        messRef.child(Balances.NODE).child(month).addListenerForSingleValueEvent(new Reader(load) {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (load != loadId) return;
+                closed = snapshot;
+                onReadDone();
+            }
+        });
+        // This month's bills, or the carried-forward ones if the month isn't saved yet
+        Bills.load(messRef, month, (amounts, fromMonth) -> {
+            if (load != loadId) return;
+            bills = amounts;
+            onReadDone();
+        });
+    }
+
+    private abstract class Reader implements ValueEventListener {
+        private final int load;
+
+        Reader(int load) {
+            this.load = load;
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            if (load == loadId) onReadFailed("Failed to load: " + error.getMessage());
+        }
+    }
+
+    private void onReadFailed(String message) {
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+        loadFailed = true;
+        onReadDone();
+    }
+
+    private void onReadDone() {
+        if (--pendingReads > 0) return;
+        if (loadFailed) {
+            // Half the counters would settle to wrong numbers, so show nothing instead
+            tvMealRate.setText("Could not load this month");
+            tvSummary.setText("Tap the title to try again");
+        } else {
+            settle();
+        }
+    }
+
+    // --- SETTLEMENT ---
+    private void settle() {
+        DataSnapshot memberMeals = mealTotals.child("members");
+        DataSnapshot deposited = depositTotals.child("members");
+
+        // Active members, plus deactivated ones who still ate or deposited this month
+        Map<String, RosterCache.Member> byUid = new HashMap<>();
+        for (RosterCache.Member member : roster) byUid.put(member.uid, member);
+        List<RosterCache.Member> people = new ArrayList<>();
+        for (String uid : SettlementEngine.sharers(roster, keys(memberMeals), keys(deposited))) {
+            RosterCache.Member member = byUid.get(uid);
+            if (member == null) {
+                DataSnapshot left = archive.child(uid);
+                String name = left.child("name").getValue(String.class);
+                member = new RosterCache.Member(uid, (name == null ? "Unknown" : name) + " (left)",
+                        left.child("role").getValue(String.class), MemberCounts.INACTIVE);
+            }
+            people.add(member);
+        }
+
+        int n = people.size();
+        double[] meals = new double[n];
+        double[] paid = new double[n];
+        for (int i = 0; i < n; i++) {
+            String uid = people.get(i).uid;
+            meals[i] = number(memberMeals.child(uid));
+            // Money in = deposits; expenses come out of the pool (see SettlementEngine)
+            paid[i] = number(deposited.child(uid));
+        }
+
+        double grocery = number(expenseTotals.child("Grocery"));
+        double other = number(expenseTotals.child("Other"));
+        double fixedBills = Bills.total(bills);
+
+        SettlementEngine.Result result = SettlementEngine.settle(meals, paid, grocery, other, fixedBills);
+
+        // Running balance = carried in + this month
+        Map<String, Double> carried = Balances.parse(carriedIn);
+        rows.clear();
+        for (int i = 0; i < n; i++) {
+            RosterCache.Member member = people.get(i);
+            rows.add(new SettlementItem(member.uid, member.name, meals[i], result.cost[i], paid[i],
+                    Balances.carriedOf(carried, member.uid) + result.balance[i]));
+        }
+        adapter.notifyDataSetChanged();
+
+        String previous = DateKeys.displayMonth(DateKeys.previousMonth(monthKey));
+        tvMealRate.setText(String.format(Locale.US, "Meal Rate: TK. %.2f", result.mealRate));
+        tvSummary.setText(String.format(Locale.US, "Meals: %.1f | Grocery: TK. %.0f | Other: TK. %.0f | Bills: TK. %.0f",
+                result.totalMeals, grocery, other, fixedBills)
+                + (carriedIn.exists() ? "\nBalances include what was carried from " + previous
+                : "\nNothing carried from " + previous + " (not settled)"));
+
+        if (isManager && monthKey.compareTo(DateKeys.currentMonth()) < 0) {
+            List<String> uids = new ArrayList<>(n);
+            for (RosterCache.Member member : people) uids.add(member.uid);
+            closeMonth(monthKey, Balances.close(carried, uids, result.balance));
+        }
+    }
+
+    // The month has ended: save what every member carries out of it, if that changed
+    private void closeMonth(String month, Map<String, Double> closing) {
+        if (closed.exists() && Balances.same(closing, Balances.parse(closed))) return;
+        Map<String, Object> updates = new HashMap<>();
+        Balances.putClosing(updates, month, closing);
+        Context app = getApplicationContext();
+        OutboxSync.writeMess(currentMessCode, updates, ok -> {
+            if (!ok) Toast.makeText(app, "Balances for " + DateKeys.displayMonth(month) + " could not be saved", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    private static List<String> keys(DataSnapshot snapshot) {
+        List<String> keys = new ArrayList<>();
+        for (DataSnapshot child : snapshot.getChildren()) keys.add(child.getKey());
+        return keys;
+    }
+
+    private static double number(DataSnapshot snap) {
+        Object val = snap.getValue();
+        return val instanceof Number ? ((Number) val).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,109 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// "Name contains" filter over one roster load, for the search box in Meal_History.
+// - Names are normalized (MemberIndex.normalize) once, the first time it is queried, and
+//   every letter gets the list of members whose name has it, so a fresh query only scans
+//   the members holding its rarest letter.
+// - Typing more (a query that contains the previous one) only re-checks the previous hits.
+// Results are member positions in the order the names were given, so they line up with
+// rows built from the same roster. Meant to be queried from one background thread.
+public final class NameSearch {
+
+    private static final int[] NONE = new int[0];
+
+    private final List<String> names;
+    private String[] normalized;           // Built on first query
+    private Map<Character, int[]> byLetter;
+    private int[] all;
+
+    private String lastQuery;
+    private int[] lastResult;
+
+    public NameSearch(List<String> names) {
+        this.names = new ArrayList<>(names);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    // Same names in the same order, i.e. the index can be kept for a reloaded roster
+    public boolean covers(List<String> other) {
+        return names.equals(other);
+    }
+
+    // Positions of matching names, ascending. The array is shared: don't modify it.
+    public synchronized int[] filter(String query) {
+        build();
+        String q = MemberIndex.normalize(query == null ? "" : query);
+        if (q.isEmpty()) return remember(q, all);
+        if (q.equals(lastQuery)) return lastResult;
+
+        int[] candidates;
+        if (lastQuery != null && !lastQuery.isEmpty() && q.contains(lastQuery)) {
+            candidates = lastResult; // Refine: anything matching q also matched the shorter query
+        } else {
+            candidates = rarestLetter(q);
+        }
+
+        int[] hits = new int[candidates.length];
+        int count = 0;
+        for (int m : candidates) {
+            if (normalized[m].contains(q)) hits[count++] = m;
+        }
+        int[] result = new int[count];
+        System.arraycopy(hits, 0, result, 0, count);
+        return remember(q, result);
+    }
+
+    private int[] remember(String q, int[] result) {
+        lastQuery = q;
+        lastResult = result;
+        return result;
+    }
+
+    private int[] rarestLetter(String q) {
+        int[] best = null;
+        for (int i = 0; i < q.length(); i++) {
+            int[] posting = byLetter.get(q.charAt(i));
+            if (posting == null) return NONE; // Letter no name has
+            if (best == null || posting.length < best.length) best = posting;
+        }
+        return best == null ? all : best;
+    }
+
+    private void build() {
+        if (normalized != null) return;
+        int n = names.size();
+        normalized = new String[n];
+        all = new int[n];
+        Map<Character, List<Integer>> lists = new HashMap<>();
+        for (int m = 0; m < n; m++) {
+            String name = names.get(m);
+            normalized[m] = name == null ? "" : MemberIndex.normalize(name);
+            all[m] = m;
+            String s = normalized[m];
+            for (int i = 0; i < s.length(); i++) {
+                List<Integer> list = lists.get(s.charAt(i));
+                if (list == null) {
+                    list = new ArrayList<>();
+                    lists.put(s.charAt(i), list);
+                }
+                // Members are visited in order, so a repeat letter is always the last entry
+                if (list.isEmpty() || list.get(list.size() - 1) != m) list.add(m);
+            }
+        }
+        byLetter = new HashMap<>();
+        for (Map.Entry<Character, List<Integer>> e : lists.entrySet()) {
+            List<Integer> list = e.getValue();
+            int[] posting = new int[list.size()];
+            for (int i = 0; i < posting.length; i++) posting[i] = list.get(i);
+            byLetter.put(e.getKey(), posting);
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Tracks writes made with bad (or no) reception until the server has them.
+// - Every write is one batch (a multi-path update, paths from the database root) and is
+//   handed to the Backend at once, online or not. Firebase applies it to its local cache
+//   straight away (so screens, balances and lists see it offline) and keeps it in its own
+//   persisted write queue, which it replays after reconnects and restarts.
+// - The outbox never sends a batch a second time. Resending from here on top of Firebase's
+//   own replay could apply a ServerValue.increment twice; with one sender every counter
+//   delta is applied once.
+// - The queue is saved through Store on every change, so "waiting to sync" survives the app
+//   being killed. Batches restored after a restart are already in Firebase's queue; they
+//   can't be acked individually any more. Instead, on connect a small marker write goes
+//   out behind them: Firebase applies writes in order, so once the marker is acked every
+//   restored batch has been handled and they are cleared. Until then they show as waiting.
+// - A batch the server rejects (e.g. permission denied) is reported as failed and dropped;
+//   Firebase has already rolled it back locally.
+// - depth()/oldestAgeMs() tell the UI what is unsynced; the ack counters and latencies
+//   (enqueue -> server ack) are there for diagnostics.
+// Plain Java on purpose: no Android or Firebase types, so it runs against an in-memory
+// Backend in unit tests. Not thread-safe; everything is called on the main thread.
+public class Outbox {
+
+    // Sends one atomic multi-path update and reports back exactly once
+    public interface Backend {
+        void write(Map<String, Object> updates, Done done);
+    }
+
+    // Where the encoded queue is kept between runs
+    public interface Store {
+        String read();
+        void write(String data);
+    }
+
+    public interface Done {
+        void onDone(boolean ok);
+    }
+
+    public interface Listener {
+        void onOutboxChanged(Outbox outbox);
+    }
+
+    // Server-side add (ServerValue.increment) kept as a number so it can be merged
+    public static final class Increment {
+        public final double delta;
+
+        Increment(double delta) {
+            this.delta = delta;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Increment && ((Increment) o).delta == delta;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(delta);
+        }
+
+        @Override
+        public String toString() {
+            return "increment(" + delta + ")";
+        }
+    }
+
+    public static Increment increment(double delta) {
+        return new Increment(delta);
+    }
+
+    private static final class Entry {
+        final long id;
+        final long createdAt;
+        final boolean restored; // From an earlier run: Firebase's queue has it, no ack will come
+        final LinkedHashMap<String, Object> updates;
+        final List<Done> callbacks = new ArrayList<>(1); // Not persisted
+
+        Entry(long id, long createdAt, boolean restored, LinkedHashMap<String, Object> updates) {
+            this.id = id;
+            this.createdAt = createdAt;
+            this.restored = restored;
+            this.updates = updates;
+        }
+    }
+
+    private final Backend backend;
+    private final Store store;
+    private final LongSupplier clock;
+    private final Supplier<Map<String, Object>> marker;
+    private final ArrayList<Entry> queue = new ArrayList<>();
+    private final List<Listener> listeners = new ArrayList<>();
+    private long nextId = 1;
+    private boolean connected;
+    private boolean markerSent; // A marker is on its way; restored batches clear on its ack
+
+    // Metrics
+    private long acked, failed;
+    private long lastLatencyMs, maxLatencyMs, totalLatencyMs;
+
+    // marker gives the root-relative updates of the marker write (harmless, and allowed for
+    // the signed-in user), or null if there is nothing it can write right now
+    public Outbox(Backend backend, Store store, LongSupplier clock, Supplier<Map<String, Object>> marker) {
+        this.backend = backend;
+        this.store = store;
+        this.clock = clock;
+        this.marker = marker;
+        for (Entry entry : decode(store.read())) {
+            queue.add(new Entry(entry.id, entry.createdAt, true, entry.updates));
+            nextId = Math.max(nextId, entry.id + 1);
+        }
+    }
+
+    // --- WRITING ---
+
+    // Paths in updates are relative to basePath ("" for the root). done may be null;
+    // it fires once, when the server accepted or rejected the write.
+    public void enqueue(String basePath, Map<String, Object> updates, Done done) {
+        String prefix = basePath == null || basePath.isEmpty() ? "" : basePath + "/";
+        LinkedHashMap<String, Object> full = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : updates.entrySet()) {
+            full.put(prefix + e.getKey(), normalize(e.getValue()));
+        }
+        if (full.isEmpty()) {
+            if (done != null) done.onDone(true);
+            return;
+        }
+        Entry entry = new Entry(nextId++, clock.getAsLong(), false, full);
+        if (done != null) entry.callbacks.add(done);
+        queue.add(entry);
+        persist();
+        changed();
+        backend.write(new LinkedHashMap<>(full), ok -> onAcked(entry, ok));
+    }
+
+    // Fed from .info/connected; nothing is resent, only the marker goes out
+    public void setConnected(boolean connected) {
+        this.connected = connected;
+        if (connected) sendMarker();
+        changed();
+    }
+
+    // Queued behind every restored batch in Firebase's write queue; a failed marker is
+    // sent again on the next connect
+    private void sendMarker() {
+        if (markerSent || !hasRestored()) return;
+        Map<String, Object> updates = marker.get();
+        if (updates == null || updates.isEmpty()) return;
+        markerSent = true;
+        backend.write(new LinkedHashMap<>(updates), ok -> {
+            markerSent = false;
+            if (ok) clearRestored();
+        });
+    }
+
+    private boolean hasRestored() {
+        for (Entry entry : queue) {
+            if (entry.restored) return true;
+        }
+        return false;
+    }
+
+    private void clearRestored() {
+        boolean removed = false;
+        for (Iterator<Entry> it = queue.iterator(); it.hasNext(); ) {
+            if (it.next().restored) {
+                it.remove();
+                removed = true;
+            }
+        }
+        if (!removed) return;
+        persist();
+        changed();
+    }
+
+    private void onAcked(Entry entry, boolean ok) {
+        if (!queue.remove(entry)) return;
+        if (ok) {
+            lastLatencyMs = Math.max(0, clock.getAsLong() - entry.createdAt);
+            maxLatencyMs = Math.max(maxLatencyMs, lastLatencyMs);
+            totalLatencyMs += lastLatencyMs;
+            acked++;
+        } else {
+            failed++;
+        }
+        persist();
+        for (Done done : entry.callbacks) done.onDone(ok);
+        changed();
+    }
+
+    // --- STATUS & METRICS ---
+
+    public int depth() {
+        return queue.size();
+    }
+
+    public long oldestAgeMs() {
+        return queue.isEmpty() ? 0 : Math.max(0, clock.getAsLong() - queue.get(0).createdAt);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long ackedCount() {
+        return acked;
+    }
+
+    public long failedCount() {
+        return failed;
+    }
+
+    public long lastLatencyMs() {
+        return lastLatencyMs;
+    }
+
+    public long maxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    public long averageLatencyMs() {
+        return acked == 0 ? 0 : totalLatencyMs / acked;
+    }
+
+    // True if a set of exactly this root-relative path is still waiting to be sent
+    public boolean hasPending(String path) {
+        for (int i = queue.size() - 1; i >= 0; i--) {
+            if (queue.get(i).updates.containsKey(path)) return true;
+        }
+        return false;
+    }
+
+    // The newest unacked value for the path (null if none, or if it deletes the path)
+    public Object pendingValue(String path) {
+        for (int i = queue.size() - 1; i >= 0; i--) {
+            Entry entry = queue.get(i);
+            if (entry.updates.containsKey(path)) return entry.updates.get(path);
+        }
+        return null;
+    }
+
+    // Snapshot of what is waiting, oldest first (root-relative paths)
+    public List<Map<String, Object>> pending() {
+        List<Map<String, Object>> batches = new ArrayList<>();
+        for (Entry entry : queue) batches.add(new LinkedHashMap<>(entry.updates));
+        return batches;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void changed() {
+        for (Listener listener : new ArrayList<>(listeners)) listener.onOutboxChanged(this);
+    }
+
+    private void persist() {
+        store.write(encode(queue));
+    }
+
+    // --- ENCODING ---
+    // Plain text with length-prefixed strings, so nothing needs escaping:
+    //   entry = 'e' id ';' createdAt ';' count ':' (string value)*
+    //   value = 'n' | 't' | 'f' | 'l' long ';' | 'd' double ';' | 'i' delta ';'
+    //         | 's' length ':' chars | 'm' count ':' (string value)* | 'a' count ':' value*
+
+    // Firebase-style values only; ServerValue.increment placeholders become Increment
+    @SuppressWarnings("unchecked")
+    static Object normalize(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean
+                || value instanceof Long || value instanceof Double || value instanceof Increment) {
+            return value;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) return ((Float) value).doubleValue();
+        if (value instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) value;
+            Object sv = map.get(".sv");
+            if (map.size() == 1 && sv instanceof Map && ((Map<?, ?>) sv).get("increment") instanceof Number) {
+                return new Increment(((Number) ((Map<?, ?>) sv).get("increment")).doubleValue());
+            }
+            LinkedHashMap<String, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> e : map.entrySet()) copy.put(e.getKey(), normalize(e.getValue()));
+            return copy;
+        }
+        if (value instanceof List) {
+            // RTDB stores a list as children "0", "1", ... (meal entries, meal slots)
+            ArrayList<Object> copy = new ArrayList<>();
+            for (Object item : (List<?>) value) copy.add(normalize(item));
+            return copy;
+        }
+        throw new IllegalArgumentException("Outbox can't store " + value.getClass().getSimpleName());
+    }
+
+    static String encode(List<Entry> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries) {
+            sb.append('e').append(entry.id).append(';').append(entry.createdAt).append(';');
+            encodeMap(sb, entry.updates);
+        }
+        return sb.toString();
+    }
+
+    private static void encodeMap(StringBuilder sb, Map<String, Object> map) {
+        sb.append(map.size()).append(':');
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            encodeString(sb, e.getKey());
+            encodeValue(sb, e.getValue());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void encodeValue(StringBuilder sb, Object value) {
+        if (value == null) sb.append('n');
+        else if (value instanceof Boolean) sb.append((Boolean) value ? 't' : 'f');
+        else if (value instanceof Long) sb.append('l').append(value).append(';');
+        else if (value instanceof Double) sb.append('d').append(value).append(';');
+        else if (value instanceof Increment) sb.append('i').append(((Increment) value).delta).append(';');
+        else if (value instanceof String) encodeString(sb.append('s'), (String) value);
+        else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            sb.append('a').append(list.size()).append(':');
+            for (Object item : list) encodeValue(sb, item);
+        } else {
+            sb.append('m');
+            encodeMap(sb, (Map<String, Object>) value);
+        }
+    }
+
+    private static void encodeString(StringBuilder sb, String s) {
+        sb.append(s.length()).append(':').append(s);
+    }
+
+    // A damaged queue is dropped rather than crashing the app on every start
+    static List<Entry> decode(String data) {
+        List<Entry> entries = new ArrayList<>();
+        if (data == null || data.isEmpty()) return entries;
+        try {
+            Reader in = new Reader(data);
+            while (!in.atEnd()) {
+                in.expect('e');
+                long id = in.number();
+                long createdAt = in.number();
+                entries.add(new Entry(id, createdAt, true, in.map()));
+            }
+        } catch (RuntimeException e) {
+            entries.clear();
+        }
+        return entries;
+    }
+
+    private static final class Reader {
+        private final String s;
+        private int pos;
+
+        Reader(String s) {
+            this.s = s;
+        }
+
+        boolean atEnd() {
+            return pos >= s.length();
+        }
+
+        void expect(char c) {
+            if (s.charAt(pos++) != c) throw new IllegalStateException("Bad outbox data at " + (pos - 1));
+        }
+
+        private String until(char end) {
+            int stop = s.indexOf(end, pos);
+            if (stop < 0) throw new IllegalStateException("Bad outbox data at " + pos);
+            String token = s.substring(pos, stop);
+            pos = stop + 1;
+            return token;
+        }
+
+        long number() {
+            return Long.parseLong(until(';'));
+        }
+
+        String string() {
+            int length = Integer.parseInt(until(':'));
+            String value = s.substring(pos, pos + length);
+            pos += length;
+            return value;
+        }
+
+        LinkedHashMap<String, Object> map() {
+            int count = Integer.parseInt(until(':'));
+            LinkedHashMap<String, Object> map = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String key = string();
+                map.put(key, value());
+            }
+            return map;
+        }
+
+        ArrayList<Object> list() {
+            int count = Integer.parseInt(until(':'));
+            ArrayList<Object> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) list.add(value());
+            return list;
+        }
+
+        Object value() {
+            char type = s.charAt(pos++);
+            switch (type) {
+                case 'n': return null;
+                case 't': return Boolean.TRUE;
+                case 'f': return Boolean.FALSE;
+                case 'l': return Long.parseLong(until(';'));
+                case 'd': return Double.parseDouble(until(';'));
+                case 'i': return new Increment(Double.parseDouble(until(';')));
+                case 's': return string();
+                case 'm': return map();
+                case 'a': return list();
+                default: throw new IllegalStateException("Bad outbox value '" + type + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package edu.ewubd.smartmessMN;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Wires the process-wide Outbox to Android and Firebase:
+// - the queue lives in SharedPreferences ("outbox"),
+// - batches go out as one updateChildren on the root the moment they are enqueued;
+//   with persistence on (SmartMessApp), Firebase is the only one that ever resends them,
+// - .info/connected feeds the "offline" status, and on connect the outbox writes
+//   users/{uid}/lastSync as its marker (see Outbox) to learn when restored batches are through.
+// Started from SmartMessApp; screens enqueue through OutboxSync.get().
+public class OutboxSync {
+
+    private static final String TAG = "OutboxSync";
+    private static final String PREFS = "outbox";
+    private static final String KEY_QUEUE = "queue";
+
+    private static Outbox outbox;
+
+    public static synchronized void init(Context context) {
+        if (outbox != null) return;
+        SharedPreferences prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+
+        outbox = new Outbox(
+                (updates, done) -> root.updateChildren(toFirebase(updates))
+                        .addOnCompleteListener(task -> {
+                            if (!task.isSuccessful()) Log.w(TAG, "Outbox write failed", task.getException());
+                            done.onDone(task.isSuccessful());
+                        }),
+                new Outbox.Store() {
+                    @Override
+                    public String read() {
+                        return prefs.getString(KEY_QUEUE, null);
+                    }
+
+                    @Override
+                    public void write(String data) {
+                        prefs.edit().putString(KEY_QUEUE, data).apply();
+                    }
+                },
+                System::currentTimeMillis,
+                () -> {
+                    FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+                    if (user == null) return null;
+                    Map<String, Object> marker = new HashMap<>();
+                    marker.put("users/" + user.getUid() + "/lastSync", ServerValue.TIMESTAMP);
+                    return marker;
+                });
+
+        outbox.addListener(o -> Log.d(TAG, "depth=" + o.depth() + " oldest=" + o.oldestAgeMs() + "ms"
+                + " acked=" + o.ackedCount() + " failed=" + o.failedCount() + " latency last/avg/max=" + o.lastLatencyMs()
+                + "/" + o.averageLatencyMs() + "/" + o.maxLatencyMs() + "ms"));
+
+        // Lives as long as the process, like the outbox itself
+        root.child(".info/connected").addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                outbox.setConnected(Boolean.TRUE.equals(snapshot.getValue(Boolean.class)));
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        });
+    }
+
+    public static Outbox get() {
+        return outbox;
+    }
+
+    // Paths relative to mess/{code}
+    public static void writeMess(String messCode, Map<String, Object> updates, Outbox.Done done) {
+        outbox.enqueue("mess/" + messCode, updates, done);
+    }
+
+    public static Object pendingMessValue(String messCode, String path) {
+        return outbox.pendingValue("mess/" + messCode + "/" + path);
+    }
+
+    public static boolean hasPendingMess(String messCode, String path) {
+        return outbox.hasPending("mess/" + messCode + "/" + path);
+    }
+
+    // "3 changes waiting to sync (oldest 2 min)" or null when everything is up to date
+    public static String describe(Outbox o) {
+        int depth = o.depth();
+        if (depth == 0) return null;
+        long minutes = o.oldestAgeMs() / 60000;
+        String age = minutes < 1 ? "just now" : minutes < 60 ? minutes + " min" : (minutes / 60) + " h";
+        return depth + (depth == 1 ? " change" : " changes") + " waiting to sync (oldest " + age + ")"
+                + (o.isConnected() ? "" : " - offline");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toFirebase(Map<String, Object> updates) {
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<String, Object> e : updates.entrySet()) out.put(e.getKey(), toFirebaseValue(e.getValue()));
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object toFirebaseValue(Object value) {
+        if (value instanceof Outbox.Increment) return ServerValue.increment(((Outbox.Increment) value).delta);
+        if (value instanceof Map) return toFirebase((Map<String, Object>) value);
+        if (value instanceof List) {
+            List<Object> out = new ArrayList<>();
+            for (Object item : (List<?>) value) out.add(toFirebaseValue(item));
+            return out;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,195 @@
+package edu.ewubd.smartmessMN;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Process-wide cache of each mess roster, read from mess/{code}/roster/{uid} = {name, role, status, joined}.
+// The roster node only holds what list screens need, so one small read replaces the
+// users.orderByChild("messCode") scan. Entries are revalidated after TTL_MS.
+// schema/roster marks messes whose roster node is complete.
+public class RosterCache {
+
+    private static final long TTL_MS = 5 * 60 * 1000;
+    static final int ROSTER_VERSION = 1;
+
+    public static class Member {
+        public final String uid;
+        public final String name;
+        public final String role;
+        public final String status;
+        public final String joined; // yyyy-MM-dd; null for entries written before it was kept
+
+        public Member(String uid, String name, String role, String status) {
+            this(uid, name, role, status, null);
+        }
+
+        public Member(String uid, String name, String role, String status, String joined) {
+            this.uid = uid;
+            this.name = name;
+            this.role = role;
+            this.status = status;
+            this.joined = joined;
+        }
+    }
+
+    public interface Callback {
+        void onRoster(List<Member> roster);
+        void onError(String message);
+    }
+
+    private static class Entry {
+        final List<Member> members;
+        final long loadedAt;
+
+        Entry(List<Member> members, long loadedAt) {
+            this.members = members;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final Map<String, Entry> cache = new HashMap<>();
+    private static final Set<String> completeMesses = new HashSet<>();
+
+    private RosterCache() {}
+
+    // Delivers the cached roster if it is still fresh, otherwise reloads it.
+    // Callbacks run on the main thread (Firebase delivers there too).
+    public static void get(DatabaseReference rootRef, String messCode, Callback callback) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(messCode);
+        }
+        if (entry != null && SystemClock.elapsedRealtime() - entry.loadedAt < TTL_MS) {
+            callback.onRoster(entry.members);
+            return;
+        }
+        Entry stale = entry;
+        DatabaseReference messRef = rootRef.child("mess").child(messCode);
+        synchronized (cache) {
+            if (completeMesses.contains(messCode)) {
+                loadRoster(messRef, messCode, stale, callback);
+                return;
+            }
+        }
+        messRef.child("schema").child("roster").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (snapshot.exists()) {
+                    synchronized (cache) {
+                        completeMesses.add(messCode);
+                    }
+                    loadRoster(messRef, messCode, stale, callback);
+                } else {
+                    // Messes created before the roster node existed
+                    backfillFromUsers(rootRef, messCode, callback);
+                }
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                if (stale != null) callback.onRoster(stale.members);
+                else callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    private static void loadRoster(DatabaseReference messRef, String messCode, Entry stale, Callback callback) {
+        messRef.child("roster").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onRoster(store(messCode, parse(snapshot)));
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                if (stale != null) callback.onRoster(stale.members);
+                else callback.onError(error.getMessage());
+            }
+        });
+    }
+
+    public static void invalidate(String messCode) {
+        synchronized (cache) {
+            cache.remove(messCode);
+        }
+    }
+
+    // Value stored at mess/{code}/roster/{uid}
+    public static Map<String, Object> rosterEntry(String name, String role, String status, String joined) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("name", name);
+        entry.put("role", role);
+        entry.put("status", status);
+        if (joined != null) entry.put("joined", joined);
+        return entry;
+    }
+
+    // Live roster updates from MessDataStore land here as well
+    static void put(String messCode, List<Member> members) {
+        store(messCode, members);
+    }
+
+    static List<Member> parse(DataSnapshot snapshot) {
+        List<Member> members = new ArrayList<>();
+        for (DataSnapshot child : snapshot.getChildren()) {
+            String name = child.child("name").getValue(String.class);
+            members.add(new Member(child.getKey(),
+                    name == null ? "Unknown" : name,
+                    child.child("role").getValue(String.class),
+                    child.child("status").getValue(String.class),
+                    child.child("joined").getValue(String.class)));
+        }
+        return members;
+    }
+
+    private static List<Member> store(String messCode, List<Member> members) {
+        List<Member> frozen = Collections.unmodifiableList(members);
+        synchronized (cache) {
+            cache.put(messCode, new Entry(frozen, SystemClock.elapsedRealtime()));
+        }
+        return frozen;
+    }
+
+    // One-off: builds the roster node from the global users index, then never again
+    private static void backfillFromUsers(DatabaseReference rootRef, String messCode, Callback callback) {
+        rootRef.child("users").orderByChild("messCode").equalTo(messCode)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        List<Member> members = new ArrayList<>();
+                        Map<String, Object> updates = new HashMap<>();
+                        for (DataSnapshot userSnap : snapshot.getChildren()) {
+                            String name = userSnap.child("name").getValue(String.class);
+                            if (name == null) name = "Unknown";
+                            String role = userSnap.child("role").getValue(String.class);
+                            String joined = DateKeys.normalize(userSnap.child("joinDate").getValue(String.class), DateKeys.LEGACY_JOIN);
+                            members.add(new Member(userSnap.getKey(), name, role, "active", joined));
+                            updates.put("roster/" + userSnap.getKey(), rosterEntry(name, role, "active", joined));
+                        }
+                        updates.put("schema/roster", ROSTER_VERSION);
+                        DatabaseReference messRef = rootRef.child("mess").child(messCode);
+                        messRef.updateChildren(updates);
+                        // Counted from the roster just written, not from this list: SignUp may
+                        // have added someone (and incremented the counter) since it was read
+                        MemberCounts.backfillIfNeeded(messRef);
+                        callback.onRoster(store(messCode, members));
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        callback.onError(error.getMessage());
+                    }
+                });
+    }
+}
@@ -0,0 +1,52 @@
+package edu.ewubd.smartmessMN;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+// One-row adapter for a section title + column header, so several lists can share
+// a single RecyclerView through ConcatAdapter (e.g. Grocery / Other expenses).
+public class SectionHeaderAdapter extends RecyclerView.Adapter<SectionHeaderAdapter.ViewHolder> {
+
+    private final String title;
+
+    public SectionHeaderAdapter(String title) {
+        this.title = title;
+        setHasStableIds(true);
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.activity_row_section_header, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.tvTitle.setText(title);
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return 0; // Only row of this adapter (ids are isolated per adapter)
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView tvTitle;
+
+        ViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvTitle = itemView.findViewById(R.id.tv_section_title);
+        }
+    }
+}
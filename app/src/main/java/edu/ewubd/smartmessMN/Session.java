@@ -0,0 +1,93 @@
+package edu.ewubd.smartmessMN;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.DataSnapshot;
+
+// The signed-in user's profile (uid, role, messCode, name), persisted on disk.
+// Lets the app open straight onto the dashboard without waiting on users/{uid},
+// and lets any screen recover messCode/role if it was re-created without its extras
+// (e.g. after the process was killed in the background).
+// The copy on disk is refreshed whenever the real profile is read.
+public class Session {
+
+    private static final String PREFS = "session";
+
+    public final String uid;
+    public final String role;
+    public final String messCode;
+    public final String name;
+
+    private Session(String uid, String role, String messCode, String name) {
+        this.uid = uid;
+        this.role = role;
+        this.messCode = messCode;
+        this.name = name;
+    }
+
+    // Returns null when nothing usable is stored
+    public static Session load(Context context) {
+        SharedPreferences prefs = prefs(context);
+        String uid = prefs.getString("uid", null);
+        String role = prefs.getString("role", null);
+        String messCode = prefs.getString("messCode", null);
+        if (uid == null || role == null || messCode == null) return null;
+        return new Session(uid, role, messCode, prefs.getString("name", ""));
+    }
+
+    // Only a session that belongs to the currently signed-in user counts
+    public static Session load(Context context, String uid) {
+        Session session = load(context);
+        return session != null && session.uid.equals(uid) ? session : null;
+    }
+
+    public static Session save(Context context, String uid, String role, String messCode, String name) {
+        prefs(context).edit()
+                .putString("uid", uid)
+                .putString("role", role)
+                .putString("messCode", messCode)
+                .putString("name", name)
+                .apply();
+        return new Session(uid, role, messCode, name);
+    }
+
+    // Saves users/{uid}; returns null if the profile is incomplete
+    public static Session save(Context context, DataSnapshot profile) {
+        String role = profile.child("role").getValue(String.class);
+        String messCode = profile.child("messCode").getValue(String.class);
+        String name = profile.child("name").getValue(String.class);
+        if (role == null || messCode == null) return null;
+        return save(context, profile.getKey(), role, messCode, name == null ? "" : name);
+    }
+
+    public static void clear(Context context) {
+        prefs(context).edit().clear().apply();
+    }
+
+    // Intent extra if the screen got one, otherwise the saved session's value. The saved
+    // session only counts if it belongs to whoever is signed in now (a different account
+    // on the same phone must not inherit the last one's mess or role).
+    public static String messCode(Activity activity) {
+        return extraOrSaved(activity, "messCode");
+    }
+
+    public static String role(Activity activity) {
+        return extraOrSaved(activity, "role");
+    }
+
+    private static String extraOrSaved(Activity activity, String key) {
+        String value = activity.getIntent().getStringExtra(key);
+        if (value != null) return value;
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null || !user.getUid().equals(prefs(activity).getString("uid", null))) return null;
+        return prefs(activity).getString(key, null);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,46 @@
+package edu.ewubd.smartmessMN;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+
+public class SettlementAdapter extends ArrayAdapter<SettlementItem> {
+
+    public SettlementAdapter(@NonNull Context context, ArrayList<SettlementItem> list) {
+        super(context, 0, list);
+    }
+
+    @NonNull
+    @Override
+    public View getView(int position, @Nullable View convertView, @NonNull ViewGroup parent) {
+        if (convertView == null) {
+            convertView = LayoutInflater.from(getContext()).inflate(R.layout.activity_row_settlement, parent, false);
+        }
+
+        SettlementItem item = getItem(position);
+
+        TextView tvName = convertView.findViewById(R.id.tv_row_name);
+        TextView tvMeals = convertView.findViewById(R.id.tv_row_meals);
+        TextView tvCost = convertView.findViewById(R.id.tv_row_cost);
+        TextView tvPaid = convertView.findViewById(R.id.tv_row_paid);
+        TextView tvBalance = convertView.findViewById(R.id.tv_row_balance);
+
+        if (item != null) {
+            tvName.setText(item.userName);
+            tvMeals.setText(String.valueOf(item.meals));
+            tvCost.setText(String.valueOf(Math.round(item.cost)));
+            tvPaid.setText(String.valueOf(Math.round(item.paid)));
+            tvBalance.setText(String.valueOf(Math.round(item.balance)));
+            // Red when the member still owes money, green when the mess owes them
+            tvBalance.setTextColor(item.balance < 0 ? 0xFFC62828 : 0xFF2E7D32);
+        }
+
+        return convertView;
+    }
+}
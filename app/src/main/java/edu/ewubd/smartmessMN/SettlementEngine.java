@@ -0,0 +1,94 @@
+package edu.ewubd.smartmessMN;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+// Month-end settlement from aggregated counters.
+// Every array is indexed by roster position, so the whole computation is one pass
+// over the members with no boxing and no maps:
+//   mealRate    = grocery expenses / total meals
+//   fixedShare  = (fixed bills + "Other" expenses) / members
+//   cost[i]     = meals[i] * mealRate + fixedShare
+//   balance[i]  = paid[i] - cost[i]   (> 0 receivable, < 0 payable)
+// paid[i] is what member i deposited. Expenses are paid out of the pool, the same way
+// the Ledger books them, so buying the groceries doesn't count as paying in: whoever
+// spends their own money records it as a deposit.
+// "Other" expenses (gas, cleaning, ...) don't scale with meals, so they are split
+// equally like the bills. Every taka spent is charged to someone, so when paid[]
+// covers all of it the balances net out to zero.
+// Latency budget: settle() for 500 members stays under 5 ms, so the settlement screen
+// can recompute on the main thread whenever a counter moves. The work is a few
+// multiplications per member; a desktop JVM does 500 in microseconds.
+public final class SettlementEngine {
+
+    static final long BUDGET_NANOS = 5_000_000; // 5 ms, see above
+
+    public static final class Result {
+        public final double mealRate;
+        public final double fixedShare;
+        public final double totalMeals;
+        public final double[] cost;
+        public final double[] balance;
+
+        Result(double mealRate, double fixedShare, double totalMeals, double[] cost, double[] balance) {
+            this.mealRate = mealRate;
+            this.fixedShare = fixedShare;
+            this.totalMeals = totalMeals;
+            this.cost = cost;
+            this.balance = balance;
+        }
+    }
+
+    private SettlementEngine() {}
+
+    // Who shares a month's fixed bills and "Other" expenses: every active member, plus
+    // anyone inactive or off the roster who still ate or deposited that month. Active
+    // members come first, in roster order. Every screen that shows a balance counts heads
+    // with this, so a member who leaves mid-month doesn't change the split on one screen only.
+    public static List<String> sharers(List<RosterCache.Member> roster, Collection<String> ate,
+                                       Collection<String> deposited) {
+        LinkedHashSet<String> uids = new LinkedHashSet<>();
+        for (RosterCache.Member member : roster) {
+            if (!MemberCounts.INACTIVE.equalsIgnoreCase(member.status)) uids.add(member.uid);
+        }
+        uids.addAll(ate);
+        uids.addAll(deposited);
+        return new ArrayList<>(uids);
+    }
+
+    // One member's side of settle(), for screens that only show "my balance":
+    // needs the mess-wide counters but no other member's numbers; members = sharers().size()
+    public static double memberBalance(double meals, double paid, double totalMeals, int members,
+                                       double groceryTotal, double otherTotal, double fixedBillsTotal) {
+        double mealRate = totalMeals > 0 ? groceryTotal / totalMeals : 0;
+        double fixedShare = members > 0 ? (fixedBillsTotal + otherTotal) / members : 0;
+        return paid - (meals * mealRate + fixedShare);
+    }
+
+    // meals[i]: month-to-date meals of member i, paid[i]: member i's deposits
+    public static Result settle(double[] meals, double[] paid, double groceryTotal, double otherTotal,
+                                double fixedBillsTotal) {
+        int n = meals.length;
+        if (paid.length != n) {
+            throw new IllegalArgumentException("meals and paid must have one slot per member");
+        }
+
+        double totalMeals = 0;
+        for (int i = 0; i < n; i++) {
+            totalMeals += meals[i];
+        }
+
+        double mealRate = totalMeals > 0 ? groceryTotal / totalMeals : 0;
+        double fixedShare = n > 0 ? (fixedBillsTotal + otherTotal) / n : 0;
+
+        double[] cost = new double[n];
+        double[] balance = new double[n];
+        for (int i = 0; i < n; i++) {
+            cost[i] = meals[i] * mealRate + fixedShare;
+            balance[i] = paid[i] - cost[i];
+        }
+        return new Result(mealRate, fixedShare, totalMeals, cost, balance);
+    }
+}
@@ -0,0 +1,19 @@
+package edu.ewubd.smartmessMN;
+
+public class SettlementItem {
+    public String uid;
+    public String userName;
+    public double meals;
+    public double cost;
+    public double paid;
+    public double balance; // > 0 receivable, < 0 payable
+
+    public SettlementItem(String uid, String userName, double meals, double cost, double paid, double balance) {
+        this.uid = uid;
+        this.userName = userName;
+        this.meals = meals;
+        this.cost = cost;
+        this.paid = paid;
+        this.balance = balance;
+    }
+}
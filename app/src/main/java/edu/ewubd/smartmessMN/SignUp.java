@@ -22,18 +22,12 @@ import com.google.firebase.auth.AuthCredential;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.GoogleAuthProvider;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.firebase.database.ServerValue;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Random;
 
 public class SignUp extends AppCompatActivity {
 
@@ -45,6 +39,7 @@ public class SignUp extends AppCompatActivity {
 
     private FirebaseAuth mAuth;
     private DatabaseReference mDatabase;
+    private MessCodeRegistry codeRegistry;
     private GoogleSignInClient mGoogleSignInClient;
 
     @Override
@@ -54,6 +49,7 @@ public class SignUp extends AppCompatActivity {
 
         mAuth = FirebaseAuth.getInstance();
         mDatabase = FirebaseDatabase.getInstance().getReference(); // Realtime DB
+        codeRegistry = new MessCodeRegistry(mDatabase);
 
         etMessCode = findViewById(R.id.et_mess_code);
         cbManager = findViewById(R.id.cb_manager);
@@ -151,26 +147,21 @@ public class SignUp extends AppCompatActivity {
         }
 
         // 2. Generate Current Date
-        String joinDate = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault()).format(new Date());
+        String joinDate = DateKeys.today();
 
         if (isManager) {
             // --- MANAGER FLOW ---
-            String newMessId = generateNumericCode();
             String finalName = name; // Need final for inner class usage
 
-            mDatabase.child("mess").child(newMessId).addListenerForSingleValueEvent(new ValueEventListener() {
+            // Reserve a unique code atomically (collisions retry inside the registry)
+            codeRegistry.reserve(uid, new MessCodeRegistry.ReserveCallback() {
                 @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    if (snapshot.exists()) {
-                        processUserRegistration(user); // ID Collision retry
-                    } else {
-                        // Pass name and joinDate to helper method
-                        createMessAndManager(uid, email, newMessId, finalName, joinDate);
-                    }
+                public void onReserved(String newMessId) {
+                    createMessAndManager(uid, email, newMessId, finalName, joinDate);
                 }
                 @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    failRegistration("DB Error: " + error.getMessage());
+                public void onError(String message) {
+                    failRegistration("DB Error: " + message);
                 }
             });
 
@@ -183,10 +174,11 @@ public class SignUp extends AppCompatActivity {
             }
             String finalName = name;
 
-            mDatabase.child("mess").child(inputMessId).addListenerForSingleValueEvent(new ValueEventListener() {
+            // Registry lookup is a single leaf read, independent of the mess history size
+            codeRegistry.exists(inputMessId, new MessCodeRegistry.LookupCallback() {
                 @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    if (snapshot.exists()) {
+                public void onResult(boolean exists) {
+                    if (exists) {
                         // Pass name and joinDate to helper method
                         joinMessAndCreateMember(uid, email, inputMessId, finalName, joinDate);
                     } else {
@@ -194,19 +186,13 @@ public class SignUp extends AppCompatActivity {
                     }
                 }
                 @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    failRegistration("DB Error: " + error.getMessage());
+                public void onError(String message) {
+                    failRegistration("DB Error: " + message);
                 }
             });
         }
     }
 
-    private String generateNumericCode() {
-        Random rnd = new Random();
-        int number = rnd.nextInt(999999);
-        return String.format("%06d", number);
-    }
-
     // --- MANAGER HELPER (UPDATED) ---
     private void createMessAndManager(String uid, String email, String messId, String name, String joinDate) {
         Map<String, Object> messData = new HashMap<>();
@@ -217,9 +203,20 @@ public class SignUp extends AppCompatActivity {
         members.put(uid, "Manager");
         messData.put("members", members);
 
+        Map<String, Object> schema = new HashMap<>();
+        schema.put("roster", RosterCache.ROSTER_VERSION);
+        schema.put("meals", MealMigrator.SCHEMA_VERSION);
+        schema.put("dates", DateKeyMigrator.SCHEMA_VERSION);
+        schema.put(MemberCounts.NODE, MemberCounts.SCHEMA_VERSION); // Counted from the first member on
+        messData.put("schema", schema);
+
         mDatabase.child("mess").child(messId).setValue(messData)
                 .addOnSuccessListener(aVoid -> saveUserProfile(uid, email, messId, "Manager", name, joinDate))
-                .addOnFailureListener(e -> failRegistration("Failed to create mess."));
+                .addOnFailureListener(e -> {
+                    // Give the reserved code back so it can be reused
+                    mDatabase.child("messCodes").child(messId).removeValue();
+                    failRegistration("Failed to create mess.");
+                });
     }
 
     // --- MEMBER HELPER (UPDATED) ---
@@ -241,11 +238,20 @@ public class SignUp extends AppCompatActivity {
         userData.put("joinDate", joinDate); // Added Join Date
         userData.put("phone", "");          // Placeholder for phone (optional)
 
-        mDatabase.child("users").child(uid).setValue(userData)
+        // Profile and the mess roster entry are written together so they never drift apart
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("users/" + uid, userData);
+        updates.put("mess/" + messId + "/roster/" + uid, RosterCache.rosterEntry(name, role, "active", joinDate));
+        updates.put("mess/" + messId + "/" + MemberCounts.NODE + "/" + MemberCounts.ACTIVE, ServerValue.increment(1));
+        RosterCache.invalidate(messId);
+
+        mDatabase.updateChildren(updates)
                 .addOnSuccessListener(v -> {
                     Toast.makeText(this, "Success! Welcome " + name, Toast.LENGTH_LONG).show();
+                    Session.save(this, uid, role, messId, name);
                     Intent intent = new Intent(SignUp.this, MainActivity.class);
                     intent.putExtra("role", role);
+                    intent.putExtra("messCode", messId);
                     startActivity(intent);
                     finish();
                 })
@@ -0,0 +1,43 @@
+package edu.ewubd.smartmessMN;
+
+import android.util.TypedValue;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+// Slot columns of a horizontal row laid out as [name | slot... | total]. The layout holds
+// one slot cell as a template and the others are copies of it, one per configured slot
+// (MealConfig), so rows and headers follow the mess's slot list.
+final class SlotColumns {
+
+    private SlotColumns() {}
+
+    // Leaves exactly `count` slot cells, the template first, and returns them in order
+    static TextView[] fill(TextView template, int count) {
+        LinearLayout row = (LinearLayout) template.getParent();
+        int start = row.indexOfChild(template);
+        // Drop copies from an earlier fill: everything between the template and the total
+        while (row.getChildCount() > start + 2) row.removeViewAt(start + 1);
+
+        TextView[] cells = new TextView[count];
+        cells[0] = template;
+        for (int i = 1; i < count; i++) {
+            TextView cell = new TextView(template.getContext());
+            cell.setLayoutParams(new LinearLayout.LayoutParams((LinearLayout.LayoutParams) template.getLayoutParams()));
+            cell.setGravity(template.getGravity());
+            cell.setTextSize(TypedValue.COMPLEX_UNIT_PX, template.getTextSize());
+            cell.setTextColor(template.getTextColors());
+            cell.setTypeface(template.getTypeface());
+            cell.setPadding(template.getPaddingLeft(), template.getPaddingTop(),
+                    template.getPaddingRight(), template.getPaddingBottom());
+            row.addView(cell, start + i);
+            cells[i] = cell;
+        }
+        return cells;
+    }
+
+    // Header row: one short label per slot ("B", "L", "D", ...)
+    static void header(TextView template, MealConfig config) {
+        TextView[] cells = fill(template, config.size());
+        for (int i = 0; i < cells.length; i++) cells[i].setText(config.shortLabel(i));
+    }
+}
@@ -0,0 +1,27 @@
+package edu.ewubd.smartmessMN;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.database.FirebaseDatabase;
+
+// Process-wide setup that used to live in MainActivity.onCreate.
+// Runs exactly once per process, before any Activity, so the first screen
+// never pays for Firebase initialisation and persistence is always enabled
+// before the first database reference is created.
+public class SmartMessApp extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        FirebaseApp.initializeApp(this);
+        // Offline cache: the dashboard can draw from disk before the network answers
+        FirebaseDatabase.getInstance().setPersistenceEnabled(true);
+        // Offline writes are applied to that cache at once and replayed by Firebase alone;
+        // the outbox only tracks them, so unsynced changes are visible across restarts
+        OutboxSync.init(this);
+        // Listener byte counts are a debugging aid; release builds don't pay for them
+        ListenerRegistry.get().setByteCounting((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+    }
+}
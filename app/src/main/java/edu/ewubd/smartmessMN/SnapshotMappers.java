@@ -0,0 +1,109 @@
+package edu.ewubd.smartmessMN;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Hand-written DataSnapshot -> model mappers.
+// Each snapshot is turned into plain Maps once (snapshot.getValue()) and read field by
+// field, instead of getValue(ExpenseItem.class) (bean reflection) or one boxed
+// child(...).getValue(Double.class) per field. mapAsync() runs that work on one
+// background thread and hands the result back on the main thread, in the order it was
+// submitted, so child events still apply in the order Firebase sent them.
+public final class SnapshotMappers {
+
+    private SnapshotMappers() {}
+
+    public interface Work<T> {
+        T run();
+    }
+
+    public interface Callback<T> {
+        void onMapped(T result);
+    }
+
+    // Created on first use, so the plain mappers below stay usable in unit tests
+    private static class Async {
+        static final Executor executor = Executors.newSingleThreadExecutor();
+        static final Handler main = new Handler(Looper.getMainLooper());
+    }
+
+    public static <T> void mapAsync(Work<T> work, Callback<T> callback) {
+        Async.executor.execute(() -> {
+            T result = work.run();
+            Async.main.post(() -> callback.onMapped(result));
+        });
+    }
+
+    // --- EXPENSES ---
+
+    public static ExpenseItem expense(DataSnapshot snapshot) {
+        return expense(snapshot.getKey(), snapshot.getValue());
+    }
+
+    static ExpenseItem expense(String id, Object raw) {
+        if (!(raw instanceof Map)) return null;
+        Map<?, ?> map = (Map<?, ?>) raw;
+        ExpenseItem expense = new ExpenseItem();
+        expense.id = id;
+        expense.user = string(map.get("user"));
+        expense.item = string(map.get("item"));
+        expense.date = string(map.get("date"));
+        expense.amount = number(map.get("amount"));
+        expense.type = string(map.get("type"));
+        expense.uid = string(map.get("uid"));
+        return expense;
+    }
+
+    // Children in snapshot order (oldest first for key-ordered queries)
+    public static List<ExpenseItem> expenses(DataSnapshot snapshot) {
+        List<ExpenseItem> list = new ArrayList<>();
+        for (DataSnapshot child : snapshot.getChildren()) {
+            ExpenseItem expense = expense(child);
+            if (expense != null) list.add(expense);
+        }
+        return list;
+    }
+
+    // --- MEALS ---
+
+    // Meals per configured slot of one entry (either stored form); zeros when missing
+    static double[] meals(Object rawEntry, MealConfig config) {
+        return MealEncoding.decode(rawEntry, config.size());
+    }
+
+    // One row per roster member (uid -> name, in roster order) for a meals/{date} node.
+    // Members without an entry still get a row of zeros.
+    static ArrayList<MealHistoryItem> mealRows(Map<String, String> roster, Object rawDay, MealConfig config) {
+        Map<?, ?> day = rawDay instanceof Map ? (Map<?, ?>) rawDay : null;
+        ArrayList<MealHistoryItem> rows = new ArrayList<>(roster.size());
+        for (Map.Entry<String, String> member : roster.entrySet()) {
+            double[] slots = meals(day == null ? null : day.get(member.getKey()), config);
+            rows.add(new MealHistoryItem(member.getKey(), member.getValue(), slots));
+        }
+        return rows;
+    }
+
+    // --- VALUES ---
+
+    static double number(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException ignored) { }
+        }
+        return 0;
+    }
+
+    static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package edu.ewubd.smartmessMN;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Base for every list screen (meal history, expenses, members).
+// - submitList() diffs old vs new on one shared background thread, so only rows that
+//   actually changed are rebound and nothing is diffed on the UI thread.
+// - Rows have stable ids taken from their Firebase key, so RecyclerView can keep
+//   the same ViewHolder for the same member/expense across updates.
+// Lists handed to submitList() must not be changed afterwards; build a new list instead.
+public abstract class StableListAdapter<T, VH extends RecyclerView.ViewHolder> extends ListAdapter<T, VH> {
+
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    protected StableListAdapter(@NonNull DiffUtil.ItemCallback<T> diffCallback) {
+        super(new AsyncDifferConfig.Builder<>(diffCallback)
+                .setBackgroundThreadExecutor(DIFF_EXECUTOR)
+                .build());
+        setHasStableIds(true);
+    }
+
+    // Firebase key of the row (uid, push id...)
+    protected abstract String keyOf(T item);
+
+    @Override
+    public long getItemId(int position) {
+        return stableId(keyOf(getItem(position)));
+    }
+
+    // 64-bit FNV-1a of the key; String.hashCode() collides far too easily for ids
+    static long stableId(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,39 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BalancesTest {
+
+    @Test
+    public void closingCarriesEveryoneForward() {
+        Map<String, Double> carried = new HashMap<>();
+        carried.put("u1", 200.0);
+        carried.put("gone", -500.0); // Left two months ago still owing
+
+        Map<String, Double> closing = Balances.close(carried, Arrays.asList("u1", "u2"), new double[]{-300, 150});
+        assertEquals(-100.0, closing.get("u1"), 1e-9);
+        assertEquals(150.0, closing.get("u2"), 1e-9);   // Nothing carried in: just the month
+        assertEquals(-500.0, closing.get("gone"), 1e-9); // Didn't share the month: debt stays as it was
+        assertEquals(3, closing.size());
+    }
+
+    @Test
+    public void sameIgnoresRoundingNoise() {
+        Map<String, Double> a = new HashMap<>();
+        a.put("u1", 100.0);
+        Map<String, Double> b = new HashMap<>();
+        b.put("u1", 100.001);
+        assertTrue(Balances.same(a, b));
+        b.put("u1", 101.0);
+        assertFalse(Balances.same(a, b));
+        b.put("u1", 100.0);
+        b.put("u2", 0.0);
+        assertFalse(Balances.same(a, b)); // A new member is a change even at zero
+    }
+}
@@ -0,0 +1,105 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BulkMealSheetTest {
+
+    private static BulkMealSheet sheet() {
+        Map<String, String> roster = new LinkedHashMap<>();
+        roster.put("u1", "A");
+        roster.put("u2", "B");
+        roster.put("u3", "C");
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("breakfast", 1L);
+        Map<String, Object> day = new HashMap<>();
+        day.put("u1", entry);
+        return BulkMealSheet.from("2026-10-18", MealConfig.DEFAULT, roster, day);
+    }
+
+    @Test
+    public void onlyChangedMembersAreWritten() {
+        BulkMealSheet s = sheet();
+        assertEquals(0, s.dirtyCount());
+        assertTrue(s.buildUpdates().isEmpty());
+
+        s.toggle(1, 1); // B gets lunch
+        s.toggle(2, 2); // C gets dinner
+        s.toggle(2, 2); // ...and loses it again
+        assertEquals(1, s.dirtyCount());
+
+        Map<String, Object> updates = s.buildUpdates();
+        // Only the changed slot, in half-meal units
+        assertEquals(2L, updates.get("meals/2026-10-18/u2/1"));
+        assertEquals(2L, updates.get("memberMeals/u2/2026-10-18/1"));
+        assertTrue(updates.containsKey("mealTotals/2026-10/members/u2"));
+        assertTrue(updates.containsKey("mealTotals/2026-10/mess"));
+        assertEquals(4, updates.size());
+    }
+
+    @Test
+    public void oneMessCounterForManyMembers() {
+        BulkMealSheet s = sheet();
+        s.toggle(0, 0); // A: breakfast 1 -> 0
+        s.toggle(1, 0);
+        s.toggle(2, 0);
+        Map<String, Object> updates = s.buildUpdates();
+        // 3 x (2 slot copies + member counter) + 1 mess counter
+        assertEquals(10, updates.size());
+    }
+
+    @Test
+    public void tapsDuringSaveStayDirty() {
+        BulkMealSheet s = sheet();
+        s.toggle(1, 1);
+        s.buildUpdates();
+        s.toggle(2, 1); // Made after the batch was built
+        s.markSaved();
+        assertFalse(s.get(1).isDirty());
+        assertTrue(s.get(2).isDirty());
+    }
+
+    @Test
+    public void otherAmountsAreLeftToExplicitEdits() {
+        BulkMealSheet s = sheet();
+        s.set(1, 1, 0.5);
+        assertFalse(s.toggle(1, 1)); // Not reset to No
+        assertEquals(0.5, s.get(1).get(1), 0);
+        s.set(1, 1, 2);
+        assertFalse(s.toggle(1, 1));
+        assertEquals(2, s.get(1).get(1), 0);
+        assertTrue(s.toggle(1, 0));
+    }
+
+    @Test
+    public void saveIsRebasedOnTheCurrentDay() {
+        BulkMealSheet s = sheet();
+        s.toggle(0, 2); // A gets dinner
+
+        // Meanwhile A dropped breakfast and B autosaved half a lunch
+        Map<String, Object> a = new HashMap<>();
+        a.put("0", 0L);
+        Map<String, Object> b = new HashMap<>();
+        b.put("1", 1L);
+        Map<String, Object> day = new HashMap<>();
+        day.put("u1", a);
+        day.put("u2", b);
+        s.rebase(day);
+
+        assertEquals(0, s.get(0).get(0), 0); // Follows the server
+        assertEquals(1, s.get(0).get(2), 0); // The manager's edit stays
+        assertEquals(0.5, s.get(1).get(1), 0);
+        assertEquals(1, s.dirtyCount());
+
+        Map<String, Object> updates = s.buildUpdates();
+        assertEquals(2L, updates.get("meals/2026-10-18/u1/2"));
+        assertFalse(updates.containsKey("meals/2026-10-18/u1/0"));
+        assertFalse(updates.containsKey("meals/2026-10-18/u2/1"));
+        assertEquals(4, updates.size());
+    }
+}
@@ -0,0 +1,49 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CounterRebuildTest {
+
+    @Test
+    public void sameComparesNumbersNotTypes() {
+        Map<String, Object> members = new HashMap<>();
+        members.put("u1", 3L); // Firebase gives whole numbers back as Long
+        Map<String, Object> a = new HashMap<>();
+        a.put("members", members);
+        a.put("mess", 3L);
+
+        Map<String, Object> members2 = new HashMap<>();
+        members2.put("u1", 3.0);
+        Map<String, Object> b = new HashMap<>();
+        b.put("members", members2);
+        b.put("mess", 3.0);
+        assertTrue(CounterRebuild.same(a, b));
+
+        // One more meal anywhere is an edit that landed during the read
+        members2.put("u2", 1.0);
+        assertFalse(CounterRebuild.same(a, b));
+        assertFalse(CounterRebuild.same(null, b));
+        assertTrue(CounterRebuild.same(null, null));
+    }
+
+    @Test
+    public void rebuiltReplacesOnlyTheSummedKeys() {
+        Map<String, Object> current = new HashMap<>();
+        current.put("Grocery", 100L);
+        current.put("note", "kept");
+        Map<String, Object> sums = new HashMap<>();
+        sums.put("Grocery", 250.0);
+        sums.put("Other", 0.0);
+
+        Map<String, Object> node = CounterRebuild.rebuilt(current, sums);
+        assertEquals(250.0, node.get("Grocery"));
+        assertEquals(0.0, node.get("Other"));
+        assertEquals("kept", node.get("note"));
+        assertEquals(sums, CounterRebuild.rebuilt(null, sums));
+    }
+}
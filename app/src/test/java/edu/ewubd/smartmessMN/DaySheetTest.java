@@ -0,0 +1,64 @@
+package edu.ewubd.smartmessMN;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+public class DaySheetTest {
+
+    private static DaySheet sheet() {
+        return new DaySheet("2024-05-01", 3, Arrays.asList(
+                new MealHistoryItem("u1", "Rahim", new double[]{1, 1, 0}),
+                new MealHistoryItem("u2", "Karim", new double[]{0, 1, 1}),
+                new MealHistoryItem("u3", "Sadia", new double[3])));
+    }
+
+    @Test
+    public void applyPatchesOneRowAndTotals() {
+        DaySheet sheet = sheet();
+        ArrayList<MealHistoryItem> before = sheet.rows();
+        assertEquals(4, sheet.grandTotal(), 1e-9);
+
+        assertTrue(sheet.apply("u3", new double[]{1, 2, 1}));
+        ArrayList<MealHistoryItem> after = sheet.rows();
+        assertSame(before.get(0), after.get(0));
+        assertSame(before.get(1), after.get(1));
+        assertEquals(4, after.get(2).total, 1e-9);
+        assertEquals(0, before.get(2).total, 1e-9); // Old list untouched
+        assertEquals(2, sheet.total(0), 1e-9);
+        assertEquals(8, sheet.grandTotal(), 1e-9);
+
+        // Removed entry comes in as zeros
+        assertTrue(sheet.apply("u1", new double[3]));
+        assertEquals(6, sheet.grandTotal(), 1e-9);
+    }
+
+    @Test
+    public void unknownOrUnchangedIsIgnored() {
+        DaySheet sheet = sheet();
+        assertFalse(sheet.apply("ghost", new double[]{1, 1, 1}));
+        assertFalse(sheet.apply("u2", new double[]{0, 1, 1}));
+        assertEquals(4, sheet.grandTotal(), 1e-9);
+    }
+
+    @Test
+    public void incrementalTotalsMatchARecount() {
+        ArrayList<MealHistoryItem> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) rows.add(new MealHistoryItem("u" + i, "M" + i, new double[3]));
+        DaySheet sheet = new DaySheet("2024-05-01", 3, rows);
+        Random random = new Random(7);
+        for (int e = 0; e < 5000; e++) {
+            sheet.apply("u" + random.nextInt(300), new double[]{random.nextInt(3), random.nextInt(3), random.nextInt(3)});
+        }
+        double recount = 0;
+        for (MealHistoryItem row : sheet.rows()) recount += row.total;
+        assertEquals(recount, sheet.grandTotal(), 1e-9);
+    }
+}
@@ -0,0 +1,60 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LedgerMigratorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void incrementsDuringTheScanAreKept() {
+        // History scanned: 1000 of grocery in September, and the 500 deposit below
+        Map<String, Object> sept = new HashMap<>();
+        sept.put("Grocery", 1000.0);
+        sept.put("net", -1000.0);
+        Map<String, Object> oct0 = new HashMap<>();
+        oct0.put("Deposits", 500.0);
+        oct0.put("net", 500.0);
+        Map<String, Object> months = new HashMap<>();
+        months.put("2026-09", sept);
+        months.put("2026-10", oct0);
+        Map<String, Object> built = new HashMap<>();
+        built.put("balance", -500.0);
+        built.put("months", months);
+
+        // Before the scan the ledger had the 500 deposit; while it ran, a 200 expense came in
+        Map<String, Object> baseline = new HashMap<>();
+        baseline.put("balance", 500L);
+        Map<String, Object> baseOct = new HashMap<>();
+        baseOct.put("Deposits", 500L);
+        Map<String, Object> baseMonths = new HashMap<>();
+        baseMonths.put("2026-10", baseOct);
+        baseline.put("months", baseMonths);
+        Map<String, Object> oct = new HashMap<>();
+        oct.put("Deposits", 500L);
+        oct.put("Other", 200L);
+        Map<String, Object> currentMonths = new HashMap<>();
+        currentMonths.put("2026-10", oct);
+        Map<String, Object> current = new HashMap<>();
+        current.put("balance", 300L);
+        current.put("months", currentMonths);
+        current.put(LedgerMigrator.BUILT, null);
+
+        Map<String, Object> merged = (Map<String, Object>) LedgerMigrator.merge(built, current, baseline);
+        // 500 in, 1000 + 200 out: the deposit is counted once, not erased
+        assertEquals(-700.0, (Double) merged.get("balance"), 1e-9);
+        Map<String, Object> mergedMonths = (Map<String, Object>) merged.get("months");
+        assertEquals(1000.0, (Double) ((Map<String, Object>) mergedMonths.get("2026-09")).get("Grocery"), 1e-9);
+        assertEquals(200.0, (Double) ((Map<String, Object>) mergedMonths.get("2026-10")).get("Other"), 1e-9);
+        assertEquals(500.0, (Double) ((Map<String, Object>) mergedMonths.get("2026-10")).get("Deposits"), 1e-9);
+        assertFalse(merged.containsKey(LedgerMigrator.BUILT));
+
+        // Nothing there yet: the history goes in as it is
+        Map<String, Object> fresh = (Map<String, Object>) LedgerMigrator.merge(built, null, null);
+        assertEquals(-500.0, (Double) fresh.get("balance"), 1e-9);
+    }
+}
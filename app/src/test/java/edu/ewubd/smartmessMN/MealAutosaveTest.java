@@ -0,0 +1,146 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * The debounce timer and the outbox are replaced by hand-driven fakes: tick() is the
+ * timer firing, ack() the server answering the oldest write.
+ */
+public class MealAutosaveTest {
+
+    private Runnable timer;
+    private final List<Map<String, Object>> writes = new ArrayList<>();
+    private final List<Outbox.Done> acks = new ArrayList<>();
+    private MealAutosave autosave;
+
+    @Before
+    public void setUp() {
+        MealAutosave.Scheduler scheduler = new MealAutosave.Scheduler() {
+            @Override
+            public void postDelayed(Runnable task, long delayMs) {
+                assertEquals(MealAutosave.DEBOUNCE_MS, delayMs);
+                timer = task;
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                if (timer == task) timer = null;
+            }
+        };
+        autosave = new MealAutosave("u1", "2026-10-18", MealConfig.DEFAULT, (slot, state) -> { }, scheduler,
+                (updates, done) -> {
+                    writes.add(updates);
+                    acks.add(done);
+                });
+        autosave.onServerValues(new double[]{1, 0, 0});
+    }
+
+    private void tick() {
+        Runnable task = timer;
+        timer = null;
+        if (task != null) task.run();
+    }
+
+    private void ack(boolean ok) {
+        acks.remove(0).onDone(ok);
+    }
+
+    @Test
+    public void burstOfTypingIsOneWrite() {
+        autosave.onInput(1, "1");
+        autosave.onInput(1, "1.5");
+        autosave.onInput(2, "1");
+        assertEquals(MealAutosave.State.PENDING, autosave.state(1));
+        assertTrue(writes.isEmpty());
+
+        tick();
+        assertEquals(1, writes.size());
+        Map<String, Object> updates = writes.get(0);
+        assertEquals(3L, updates.get("meals/2026-10-18/u1/1"));
+        assertEquals(2L, updates.get("meals/2026-10-18/u1/2"));
+        assertFalse(updates.containsKey("meals/2026-10-18/u1/0")); // Unchanged slot stays out
+        assertEquals(MealAutosave.State.SAVING, autosave.state(1));
+        assertEquals(MealAutosave.State.SYNCED, autosave.state(0));
+    }
+
+    @Test
+    public void invalidInputIsNeverSent() {
+        autosave.onInput(0, "0.3");
+        assertEquals(MealAutosave.State.INVALID, autosave.state(0));
+        autosave.onInput(1, "abc");
+        autosave.onInput(2, "11");
+        assertEquals(MealAutosave.State.INVALID, autosave.state(2));
+        assertNull(timer);
+        assertFalse(autosave.flushNow());
+        assertTrue(writes.isEmpty());
+        assertEquals(1, autosave.value(0), 0); // Still the stored value
+    }
+
+    @Test
+    public void typedBackToStoredSendsNothing() {
+        autosave.onInput(0, "2");
+        assertEquals(MealAutosave.State.PENDING, autosave.state(0));
+        autosave.onInput(0, "1");
+        assertEquals(MealAutosave.State.SYNCED, autosave.state(0));
+        tick();
+        assertTrue(autosave.flushNow());
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    public void savingBecomesSyncedOnAck() {
+        autosave.onInput(0, "");
+        tick();
+        assertEquals(MealAutosave.State.SAVING, autosave.state(0));
+        // Our own write echoing back must not step the field back
+        autosave.onServerValues(new double[]{1, 0, 0});
+        assertEquals(0, autosave.value(0), 0);
+        ack(true);
+        assertEquals(MealAutosave.State.SYNCED, autosave.state(0));
+    }
+
+    @Test
+    public void rejectedWriteIsFailedUntilTheNextFlush() {
+        autosave.onInput(1, "1");
+        tick();
+        ack(false);
+        assertEquals(MealAutosave.State.FAILED, autosave.state(1));
+        assertNull(timer); // Nothing resends it by itself
+
+        // Confirm sends it again, against the value that is really stored
+        assertTrue(autosave.flushNow());
+        assertEquals(2, writes.size());
+        assertEquals(2L, writes.get(1).get("meals/2026-10-18/u1/1"));
+        assertEquals(MealAutosave.State.SAVING, autosave.state(1));
+        ack(true);
+        assertEquals(MealAutosave.State.SYNCED, autosave.state(1));
+    }
+
+    @Test
+    public void inputBeforeFirstLoadWaitsForIt() {
+        MealAutosave early = new MealAutosave("u1", "2026-10-18", MealConfig.DEFAULT, (slot, state) -> { },
+                new MealAutosave.Scheduler() {
+                    @Override
+                    public void postDelayed(Runnable task, long delayMs) {
+                        timer = task;
+                    }
+
+                    @Override
+                    public void cancel(Runnable task) { }
+                },
+                (updates, done) -> writes.add(updates));
+        early.onInput(0, "1");
+        tick();
+        assertTrue(writes.isEmpty()); // Delta unknown until the stored values arrive
+        early.onServerValues(new double[]{0, 0, 0});
+        tick();
+        assertEquals(1, writes.size());
+    }
+}
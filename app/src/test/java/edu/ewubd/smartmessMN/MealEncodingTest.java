@@ -0,0 +1,66 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MealEncodingTest {
+
+    @Test
+    public void halfMealUnitsRoundTrip() {
+        List<Long> stored = MealEncoding.encode(new double[]{1, 0.5, 0, 2});
+        assertEquals(Arrays.asList(2L, 1L, 0L, 4L), stored);
+        assertArrayEquals(new double[]{1, 0.5, 0, 2}, MealEncoding.decode(stored, 4), 0);
+        // Fewer configured slots than stored, or more
+        assertArrayEquals(new double[]{1, 0.5}, MealEncoding.decode(stored, 2), 0);
+        assertArrayEquals(new double[]{1, 0.5, 0, 2, 0}, MealEncoding.decode(stored, 5), 0);
+        assertEquals(3.5, MealEncoding.total(stored), 0);
+    }
+
+    @Test
+    public void legacyAndMixedEntries() {
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("breakfast", 1.0);
+        legacy.put("lunch", 1.0);
+        legacy.put("dinner", 0.0);
+        legacy.put("total", 2.0);
+        assertArrayEquals(new double[]{1, 1, 0}, MealEncoding.decode(legacy, 3), 0);
+
+        // Lunch later set to a half meal and a 4th slot added, slot by slot
+        legacy.put("1", 1L);
+        legacy.put("3", 2L);
+        assertArrayEquals(new double[]{1, 0.5, 0, 1}, MealEncoding.decode(legacy, 4), 0);
+        assertEquals(2.5, MealEncoding.total(legacy), 0); // Not the stale "total"
+        assertEquals(Arrays.asList(2L, 1L, 0L, 2L), MealEncoding.convert(legacy));
+
+        // RTDB hands back sparse arrays with null gaps
+        assertArrayEquals(new double[]{0, 2, 0}, MealEncoding.decode(Arrays.asList(null, 4L), 3), 0);
+        assertNull(MealEncoding.convert(null));
+    }
+
+    @Test
+    public void configParsingAndEdits() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("slots", Arrays.asList("Breakfast", "Lunch", "Dinner", "Dessert"));
+        raw.put("halfMeals", false);
+        MealConfig config = MealConfig.from(raw);
+        assertEquals(4, config.size());
+        assertEquals("B", config.shortLabel(0));
+        assertEquals("Di", config.shortLabel(2));
+        assertEquals("De", config.shortLabel(3));
+        assertFalse(config.accepts(0.5));
+        assertTrue(config.accepts(2));
+        assertTrue(MealConfig.DEFAULT.accepts(1.5));
+        assertFalse(MealConfig.DEFAULT.accepts(1.3));
+        assertSame(MealConfig.DEFAULT, MealConfig.from(null));
+
+        assertNull(config.checkEdit(MealConfig.fromInput("Sehri, Lunch, Dinner, Dessert, Iftar", false)));
+        assertNotNull(config.checkEdit(MealConfig.fromInput("Breakfast, Lunch", false)));
+        assertNotNull(config.checkEdit(MealConfig.fromInput("Breakfast, , Dinner, Dessert", false)));
+    }
+}
@@ -0,0 +1,59 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MealMatrixTest {
+
+    private static Map<String, Object> entry(double b, double l, double d) {
+        Map<String, Object> e = new HashMap<>();
+        e.put("breakfast", b);
+        e.put("lunch", l);
+        e.put("dinner", d);
+        return e;
+    }
+
+    @Test
+    public void fromDayNodes_fillsCellsAndTotals() {
+        Map<String, String> roster = new LinkedHashMap<>();
+        roster.put("u1", "A");
+        roster.put("u2", "B");
+
+        Map<String, Object> first = new HashMap<>();
+        first.put("u1", entry(1, 1, 1));
+        first.put("u2", entry(0, 1, 0.5));
+        first.put("gone", entry(5, 5, 5)); // Not on the roster any more
+        Map<String, Object> last = new HashMap<>();
+        last.put("u2", entry(1, 0, 0));
+
+        Map<String, Object> month = new HashMap<>();
+        month.put("2026-02-01", first);
+        month.put("2026-02-28", last);
+        month.put("2026-03-01", first); // Outside the month
+
+        MealMatrix m = MealMatrix.fromDayNodes("2026-02", MealConfig.DEFAULT, roster, month);
+        assertEquals(28, m.days);
+        assertEquals(0.5, m.get(1, 0, 2), 0);
+        assertEquals(3.0, m.memberTotal(0), 0);
+        assertEquals(2.5, m.memberTotal(1), 0);
+        assertEquals(4.5, m.columnTotal(0), 0);
+        assertEquals(1.0, m.columnTotal(27), 0);
+        assertEquals(5.5, m.grandTotal(), 0);
+    }
+
+    @Test
+    public void fromMemberNode_singleRow() {
+        Map<String, Object> month = new HashMap<>();
+        month.put("2026-10-05", entry(1, 1, 0));
+        MealMatrix m = MealMatrix.fromMemberNode("2026-10", MealConfig.DEFAULT, "u1", "Me", month);
+        assertEquals(31, m.days);
+        assertEquals(1, m.memberCount());
+        assertEquals(2.0, m.dayTotal(0, 4), 0);
+        assertEquals(2.0, m.grandTotal(), 0);
+    }
+}
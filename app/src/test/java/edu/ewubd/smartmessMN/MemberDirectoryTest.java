@@ -0,0 +1,73 @@
+package edu.ewubd.smartmessMN;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MemberDirectoryTest {
+
+    @Test
+    public void activeMembersByNameWithBalances() {
+        MemberDirectory directory = new MemberDirectory();
+        directory.setRoster(Arrays.asList(
+                new RosterCache.Member("u1", "sadia", "Member", "active", "2024-03-05"),
+                new RosterCache.Member("u2", "Karim", "Manager", "active", null),
+                new RosterCache.Member("u3", "Abir", "Member", "inactive", null)));
+
+        Map<String, Double> meals = new HashMap<>();
+        meals.put("u1", 30.0);
+        meals.put("u2", 10.0);
+        directory.setMeals(meals, 40);
+        directory.setExpenses(2000, 0);         // 50 per meal
+        Map<String, Double> deposits = new HashMap<>();
+        deposits.put("u1", 1000.0);
+        deposits.put("u2", 2000.0);
+        directory.setDeposits(deposits);
+        directory.setFixedBills(600);           // 300 each
+
+        assertEquals(2, directory.size());
+        List<MemberDirectory.Row> rows = directory.rows(10);
+        assertEquals("Karim", rows.get(0).name);
+        assertEquals(2000 - (500 + 300), rows.get(0).balance, 1e-9);
+        assertEquals("sadia", rows.get(1).name);
+        assertEquals(30, rows.get(1).meals, 1e-9);
+        assertEquals(1000 - (1500 + 300), rows.get(1).balance, 1e-9);
+        assertEquals("2024-03-05", rows.get(1).joined);
+    }
+
+    @Test
+    public void rowsAreBuiltOnlyForTheShownPage() {
+        RosterCache.Member[] members = new RosterCache.Member[300];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new RosterCache.Member("u" + i, String.format("Member %03d", i), "Member", "active");
+        }
+        MemberDirectory directory = new MemberDirectory();
+        directory.setRoster(Arrays.asList(members));
+
+        assertEquals(40, directory.rows(40).size());
+        assertEquals("Member 039", directory.rows(40).get(39).name);
+        assertEquals(300, directory.rows(1000).size());
+    }
+
+    @Test
+    public void leaverWhoAteStillSharesTheBills() {
+        MemberDirectory directory = new MemberDirectory();
+        directory.setRoster(Arrays.asList(
+                new RosterCache.Member("u1", "Abir", "Member", "active"),
+                new RosterCache.Member("u2", "Karim", "Member", "active")));
+        Map<String, Double> meals = new HashMap<>();
+        meals.put("u1", 10.0);
+        meals.put("gone", 10.0);                // Deactivated mid-month, not on the roster
+        directory.setMeals(meals, 20);
+        directory.setDeposits(new HashMap<>());
+        directory.setFixedBills(900);           // 300 each over three sharers, like Month_Settlement
+
+        assertEquals(2, directory.size());
+        assertEquals(-300, directory.rows(10).get(1).balance, 1e-9);
+    }
+}
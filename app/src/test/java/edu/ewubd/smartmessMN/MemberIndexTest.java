@@ -0,0 +1,87 @@
+package edu.ewubd.smartmessMN;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MemberIndexTest {
+
+    private static List<RosterCache.Member> roster(String... names) {
+        List<RosterCache.Member> members = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            members.add(new RosterCache.Member("u" + i, names[i], "Member", "active"));
+        }
+        return members;
+    }
+
+    private static List<String> names(List<MemberIndex.Match> matches) {
+        List<String> names = new ArrayList<>();
+        for (MemberIndex.Match m : matches) names.add(m.name);
+        return names;
+    }
+
+    @Test
+    public void prefixAndWordPrefix() {
+        MemberIndex index = new MemberIndex(roster("Rahim Uddin", "Karim Rahman", "Sadia"), null);
+        // Name prefix ranks above a later-word prefix
+        assertEquals(Arrays.asList("Rahim Uddin", "Karim Rahman"), names(index.search("rah", 8)));
+        assertEquals(Collections.singletonList("Rahim Uddin"), names(index.search("udd", 8)));
+        assertEquals(Collections.singletonList("Sadia"), names(index.search("  SAD ", 8)));
+    }
+
+    @Test
+    public void typoStillFindsMember() {
+        MemberIndex index = new MemberIndex(roster("Rahim", "Sadia", "Tanvir"), null);
+        assertEquals("Rahim", index.search("rhim", 8).get(0).name);
+        assertEquals("Tanvir", index.search("tanvri", 8).get(0).name);
+        assertTrue(index.search("xyz", 8).isEmpty());
+    }
+
+    @Test
+    public void recentPayersRankFirst() {
+        MemberIndex index = new MemberIndex(roster("Sakib", "Sabbir", "Sadia"), Arrays.asList("u2", "u1", "u2"));
+        assertEquals(Arrays.asList("Sadia", "Sabbir", "Sakib"), names(index.search("sa", 8)));
+        // Empty query: recent payers only
+        assertEquals(Arrays.asList("Sadia", "Sabbir"), names(index.search("", 8)));
+        assertEquals(1, index.search("sa", 1).size());
+    }
+
+    @Test
+    public void exactIsNullWhenMissingOrAmbiguous() {
+        MemberIndex index = new MemberIndex(roster("Rahim", "Rahim", "Sadia"), null);
+        assertEquals("u2", index.exact("sadia ").uid);
+        assertNull(index.exact("Rahim"));
+        assertNull(index.exact("Sad"));
+    }
+
+    @Test
+    public void everyKeystrokeFindsTheRightMembersOnLargeRoster() {
+        String[] first = {"Rahim", "Karim", "Sadia", "Tanvir", "Nusrat", "Farhan", "Ayesha", "Imran", "Mitu", "Shuvo"};
+        String[] last = {"Uddin", "Rahman", "Islam", "Hossain", "Ahmed", "Khan", "Chowdhury", "Akter", "Sarker", "Das"};
+        String[] names = new String[500];
+        for (int i = 0; i < names.length; i++) names[i] = first[i % 10] + " " + last[(i / 10) % 10] + " " + i;
+        MemberIndex index = new MemberIndex(roster(names), null);
+        assertEquals(500, index.size());
+
+        // 50 members are Chowdhury; every prefix of the surname returns a full page of them
+        String typed = "chowdhury";
+        for (int len = 1; len <= typed.length(); len++) {
+            List<MemberIndex.Match> page = index.search(typed.substring(0, len), 8);
+            assertEquals(8, page.size());
+            for (MemberIndex.Match m : page) assertTrue(m.name, m.name.contains(" Chowdhury "));
+        }
+        // Same page with a typo, in name order
+        assertEquals(names(index.search("chowdhury", 8)), names(index.search("chowdhry", 8)));
+        assertEquals("Ayesha Chowdhury 166", index.search("chowdhury", 8).get(0).name);
+
+        assertEquals("Ayesha Chowdhury 466", index.search("466", 8).get(0).name); // Then near misses
+        assertEquals("u466", index.exact("ayesha chowdhury 466").uid);
+    }
+}
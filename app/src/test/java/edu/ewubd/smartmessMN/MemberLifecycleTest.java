@@ -0,0 +1,56 @@
+package edu.ewubd.smartmessMN;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MemberLifecycleTest {
+
+    @Test
+    public void deactivateMovesEntryAndCountersInOneUpdate() {
+        Map<String, Object> updates = new HashMap<>();
+        MemberLifecycle.putDeactivate(updates,
+                new RosterCache.Member("u1", "Rahim", "Member", "active", "2024-01-10"), "2024-06-30", "Graduated");
+
+        assertTrue(updates.containsKey("roster/u1"));
+        assertNull(updates.get("roster/u1"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> entry = (Map<String, Object>) updates.get("rosterArchive/u1");
+        assertEquals("Rahim", entry.get("name"));
+        assertEquals("2024-01-10", entry.get("joined"));
+        assertEquals("2024-06-30", entry.get("left"));
+        assertEquals("Graduated", entry.get("reason"));
+        assertTrue(updates.containsKey("memberCounts/active"));
+        assertTrue(updates.containsKey("memberCounts/inactive"));
+        assertEquals(4, updates.size());
+    }
+
+    @Test
+    public void reactivateRestoresRosterEntryWithJoinDate() {
+        Map<String, Object> updates = new HashMap<>();
+        MemberLifecycle.putReactivate(updates,
+                new MemberLifecycle.Archived("u1", "Rahim", "Member", "2024-01-10", "2024-06-30", null));
+
+        assertTrue(updates.containsKey("rosterArchive/u1"));
+        assertNull(updates.get("rosterArchive/u1"));
+        assertEquals(RosterCache.rosterEntry("Rahim", "Member", "active", "2024-01-10"), updates.get("roster/u1"));
+        assertEquals(4, updates.size());
+    }
+
+    @Test
+    public void secondMoveWaitsForTheFirst() {
+        assertTrue(MemberLifecycle.beginMove("u9"));
+        assertFalse(MemberLifecycle.beginMove("u9")); // Double tap before the ack
+        assertTrue(MemberLifecycle.beginMove("u8"));
+        MemberLifecycle.endMove("u9");
+        MemberLifecycle.endMove("u8");
+        assertTrue(MemberLifecycle.beginMove("u9"));
+        MemberLifecycle.endMove("u9");
+    }
+}
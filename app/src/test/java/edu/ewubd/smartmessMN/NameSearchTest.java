@@ -0,0 +1,34 @@
+package edu.ewubd.smartmessMN;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class NameSearchTest {
+
+    private final NameSearch search = new NameSearch(Arrays.asList("Rahim Uddin", "Karim", "Sadia Rahman", null, "Tanvir"));
+
+    @Test
+    public void containsInRosterOrder() {
+        assertArrayEquals(new int[]{0, 2}, search.filter("rah"));
+        assertArrayEquals(new int[]{0, 1}, search.filter("  IM "));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, search.filter(""));
+        assertArrayEquals(new int[0], search.filter("q"));
+    }
+
+    @Test
+    public void refiningMatchesAFreshSearch() {
+        String typed = "sadia rahman";
+        for (int len = 1; len <= typed.length(); len++) {
+            int[] refined = search.filter(typed.substring(0, len));
+            int[] fresh = new NameSearch(Arrays.asList("Rahim Uddin", "Karim", "Sadia Rahman", null, "Tanvir"))
+                    .filter(typed.substring(0, len));
+            assertArrayEquals(typed.substring(0, len), fresh, refined);
+        }
+        // Backspacing (or an unrelated query) falls back to the letter index
+        assertArrayEquals(new int[]{0, 1, 2, 4}, search.filter("i"));
+        assertArrayEquals(new int[]{4}, search.filter("tan"));
+    }
+}
@@ -0,0 +1,216 @@
+package edu.ewubd.smartmessMN;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outbox against an in-memory "server": a map of root-relative paths
+public class OutboxTest {
+
+    // Applies batches like RTDB would (set, or add for increments); can hold acks back
+    private static class MemoryBackend implements Outbox.Backend {
+        final Map<String, Object> data = new HashMap<>();
+        final List<Map<String, Object>> received = new ArrayList<>();
+        final List<Outbox.Done> waiting = new ArrayList<>();
+        boolean holdAcks, fail;
+
+        @Override
+        public void write(Map<String, Object> updates, Outbox.Done done) {
+            received.add(updates);
+            if (holdAcks) {
+                waiting.add(done);
+                return;
+            }
+            if (!fail) apply(updates);
+            done.onDone(!fail);
+        }
+
+        void apply(Map<String, Object> updates) {
+            for (Map.Entry<String, Object> e : updates.entrySet()) {
+                Object value = e.getValue();
+                if (value instanceof Outbox.Increment) {
+                    Object old = data.get(e.getKey());
+                    double base = old instanceof Number ? ((Number) old).doubleValue() : 0;
+                    value = base + ((Outbox.Increment) value).delta;
+                }
+                data.put(e.getKey(), value);
+            }
+        }
+    }
+
+    private static class MemoryStore implements Outbox.Store {
+        String data;
+
+        @Override
+        public String read() {
+            return data;
+        }
+
+        @Override
+        public void write(String data) {
+            this.data = data;
+        }
+    }
+
+    private final MemoryBackend backend = new MemoryBackend();
+    private final MemoryStore store = new MemoryStore();
+    private long now = 1000;
+    private Map<String, Object> marker = map("users/u1/lastSync", 1L);
+
+    private Outbox outbox() {
+        return new Outbox(backend, store, () -> now, () -> marker);
+    }
+
+    private static Map<String, Object> map(Object... pathsAndValues) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < pathsAndValues.length; i += 2) map.put((String) pathsAndValues[i], pathsAndValues[i + 1]);
+        return map;
+    }
+
+    @Test
+    public void offlineWrites_goStraightToTheBackendAndWaitForAcks() {
+        Outbox outbox = outbox();
+        backend.holdAcks = true; // Offline: Firebase applies locally, the server answers later
+        outbox.enqueue("mess/M1", map("bills/Gas Bill", 500.0), null);
+        outbox.enqueue("mess/M1", map("bills/Gas Bill", 650.0, "mealTotals/2026-10/mess", Outbox.increment(2)), null);
+
+        assertEquals(2, backend.received.size()); // Nothing held back for a later resend
+        assertEquals(2, outbox.depth());
+        assertTrue(outbox.hasPending("mess/M1/bills/Gas Bill"));
+        assertEquals(650.0, outbox.pendingValue("mess/M1/bills/Gas Bill"));
+
+        now += 5000;
+        assertEquals(5000, outbox.oldestAgeMs());
+        outbox.setConnected(true);
+        assertEquals(2, backend.received.size()); // Connecting resends nothing
+
+        for (Map<String, Object> batch : backend.received) backend.apply(batch);
+        backend.waiting.remove(0).onDone(true);
+        backend.waiting.remove(0).onDone(true);
+        assertEquals(0, outbox.depth());
+        assertEquals(650.0, backend.data.get("mess/M1/bills/Gas Bill"));
+        assertEquals(2.0, backend.data.get("mess/M1/mealTotals/2026-10/mess"));
+        assertEquals(2, outbox.ackedCount());
+        assertEquals(5000, outbox.maxLatencyMs());
+    }
+
+    @Test
+    public void restoredBatches_areNeverResent() {
+        backend.holdAcks = true;
+        Outbox first = outbox();
+        Map<String, Object> expense = new HashMap<>();
+        expense.put("item", "Rice: 5kg; \"basmati\"");
+        expense.put("amount", 450);
+        expense.put("paid", true);
+        first.enqueue("mess/M1", map("expenses/-Nx1", expense, "expenseTotals/2026-10/Grocery", Outbox.increment(450)), null);
+        assertEquals(1, backend.received.size());
+
+        // App killed before the ack: the batch is only shown as waiting
+        Outbox second = outbox();
+        assertEquals(1, second.depth());
+        Map<String, Object> batch = second.pending().get(0);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> restored = (Map<String, Object>) batch.get("mess/M1/expenses/-Nx1");
+        assertEquals("Rice: 5kg; \"basmati\"", restored.get("item"));
+        assertEquals(450L, restored.get("amount"));
+        assertEquals(true, restored.get("paid"));
+        assertEquals(Outbox.increment(450), batch.get("mess/M1/expenseTotals/2026-10/Grocery"));
+
+        // Firebase's own queue sends it; only the marker goes out behind it
+        second.setConnected(true);
+        assertEquals(2, backend.received.size());
+        assertEquals(marker, backend.received.get(1));
+        assertEquals(1, second.depth()); // Still waiting until the marker is through
+
+        backend.waiting.get(1).onDone(true);
+        assertEquals(0, second.depth());
+        assertEquals(0, outbox().depth());
+    }
+
+    @Test
+    public void restoredBatches_stayUntilAMarkerIsAcked() {
+        backend.holdAcks = true;
+        outbox().enqueue("mess/M1", map("bills/Gas Bill", 500.0), null);
+        Outbox restarted = outbox();
+
+        // Signed out: nothing to write the marker with, so nothing is cleared
+        marker = null;
+        restarted.setConnected(true);
+        assertEquals(1, backend.received.size());
+        assertEquals(1, restarted.depth());
+
+        // Rejected marker: kept, and tried again on the next connect
+        marker = map("users/u1/lastSync", 1L);
+        restarted.setConnected(false);
+        restarted.setConnected(true);
+        restarted.setConnected(true); // One marker at a time
+        assertEquals(2, backend.received.size());
+        backend.waiting.get(1).onDone(false);
+        assertEquals(1, restarted.depth());
+        assertEquals(0, restarted.failedCount());
+
+        restarted.setConnected(true);
+        assertEquals(3, backend.received.size());
+        backend.waiting.get(2).onDone(true);
+        assertEquals(0, restarted.depth());
+        assertEquals(0, outbox().depth());
+
+        restarted.setConnected(true); // Nothing restored left, no marker
+        assertEquals(3, backend.received.size());
+    }
+
+    @Test
+    public void rejectedBatch_isReportedAndDropped() {
+        Outbox outbox = outbox();
+        backend.fail = true;
+        boolean[] result = {true};
+        outbox.enqueue("", map("locked/x", 1L), ok -> result[0] = ok);
+
+        outbox.setConnected(true);
+        assertEquals(1, backend.received.size());
+        assertEquals(0, outbox.depth());
+        assertEquals(1, outbox.failedCount());
+        assertFalse(result[0]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void lists_surviveRestartAndReachTheBackend() {
+        // A meal-slot edit and a whole meal entry, both carrying lists
+        Map<String, Object> updates = new HashMap<>();
+        MealConfig.put(updates, MealConfig.fromInput("Breakfast, Lunch, Dinner, Iftar", true));
+        MealStore.putEntry(updates, "u1", "2026-10-18", MealStore.entryValue(new double[]{1, 0.5, 0}));
+        backend.holdAcks = true;
+        outbox().enqueue("mess/M1", updates, null);
+        backend.apply(backend.received.get(0));
+
+        Outbox restarted = outbox();
+        Map<String, Object> batch = restarted.pending().get(0);
+        Map<String, Object> config = (Map<String, Object>) batch.get("mess/M1/mealConfig");
+        assertEquals(Arrays.asList("Breakfast", "Lunch", "Dinner", "Iftar"), config.get("slots"));
+        assertEquals(true, config.get("halfMeals"));
+        assertEquals(Arrays.asList(2L, 1L, 0L), batch.get("mess/M1/meals/2026-10-18/u1"));
+
+        restarted.setConnected(true);
+        backend.waiting.get(1).onDone(true);
+        assertEquals(0, restarted.depth());
+        assertEquals(2, backend.received.size()); // The batch once, then the marker
+        Map<String, Object> sent = (Map<String, Object>) backend.data.get("mess/M1/mealConfig");
+        assertEquals(MealConfig.fromInput("Breakfast, Lunch, Dinner, Iftar", true), MealConfig.from(sent));
+        assertEquals(Arrays.asList(2L, 1L, 0L), backend.data.get("mess/M1/memberMeals/u1/2026-10-18"));
+    }
+
+    @Test
+    public void damagedStore_startsEmpty() {
+        store.data = "e1;2;0;5:garbage";
+        assertEquals(0, outbox().depth());
+    }
+}
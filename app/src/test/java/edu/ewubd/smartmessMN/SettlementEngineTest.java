@@ -0,0 +1,126 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Settlement runs headless on generated data: 500 members x 31 days x 3 meals,
+ * folded into month counters the same way MealStore maintains them.
+ */
+public class SettlementEngineTest {
+
+    private static final int MEMBERS = 500;
+    private static final int DAYS = 31;
+
+    @Test
+    public void settle_balancesToZeroWhenEverythingIsPaid() {
+        double[] meals = {60, 30, 0};
+        double[] paid = {4500, 1000, 500};
+        // Grocery 4500 over 90 meals = 50/meal, bills 1500 / 3 = 500 each
+        SettlementEngine.Result r = SettlementEngine.settle(meals, paid, 4500, 0, 1500);
+
+        assertEquals(50.0, r.mealRate, 1e-9);
+        assertEquals(500.0, r.fixedShare, 1e-9);
+        assertEquals(3500.0, r.cost[0], 1e-9);
+        assertEquals(1000.0, r.balance[0], 1e-9);
+        assertEquals(-1000.0, r.balance[1], 1e-9);
+        assertEquals(0.0, r.balance[2], 1e-9);
+
+        double sum = 0;
+        for (double b : r.balance) sum += b;
+        assertEquals(0.0, sum, 1e-6);
+    }
+
+    @Test
+    public void memberBalance_matchesSettle() {
+        double[] meals = {60, 30, 0};
+        double[] paid = {4500, 1000, 500};
+        SettlementEngine.Result r = SettlementEngine.settle(meals, paid, 4500, 0, 1500);
+        for (int i = 0; i < meals.length; i++) {
+            assertEquals(r.balance[i], SettlementEngine.memberBalance(meals[i], paid[i], 90, 3, 4500, 0, 1500), 1e-9);
+        }
+    }
+
+    @Test
+    public void settle_noMealsMeansNoMealRate() {
+        SettlementEngine.Result r = SettlementEngine.settle(new double[2], new double[2], 1000, 0, 200);
+        assertEquals(0.0, r.mealRate, 0);
+        assertEquals(-100.0, r.balance[1], 1e-9);
+    }
+
+    @Test
+    public void settle_otherExpensesAreSharedEqually() {
+        double[] meals = {60, 30, 0};
+        // A paid 3000 of grocery + 600 of gas, B put in the 1000 for bills
+        double[] paid = {3600, 1000, 0};
+        // Grocery 3000 / 90 meals = 33.33, (bills 1000 + other 600) / 3 = 533.33 each
+        SettlementEngine.Result r = SettlementEngine.settle(meals, paid, 3000, 600, 1000);
+
+        assertEquals(1600.0 / 3, r.fixedShare, 1e-9);
+        assertEquals(1600.0 / 3, r.cost[2], 1e-9);
+
+        // Everything spent (grocery + other + bills) is charged, so what was paid nets out
+        double sum = 0;
+        for (double b : r.balance) sum += b;
+        assertEquals(0.0, sum, 1e-6);
+
+        assertEquals(r.balance[1], SettlementEngine.memberBalance(30, 1000, 90, 3, 3000, 600, 1000), 1e-9);
+    }
+
+    @Test
+    public void sharers_keepsLeaversWhoAteOrDeposited() {
+        List<RosterCache.Member> roster = Arrays.asList(
+                new RosterCache.Member("u1", "A", "Member", "active"),
+                new RosterCache.Member("u2", "B", "Member", "inactive"),
+                new RosterCache.Member("u3", "C", "Member", null));
+        // u4 left mid-month after eating, u5 left after depositing, u2 left and did neither
+        List<String> sharers = SettlementEngine.sharers(roster, Arrays.asList("u1", "u4"), Arrays.asList("u5", "u4"));
+        assertEquals(Arrays.asList("u1", "u3", "u4", "u5"), sharers);
+        assertEquals(Arrays.asList("u1", "u3"),
+                SettlementEngine.sharers(roster, Collections.emptyList(), Collections.emptyList()));
+    }
+
+    @Test
+    public void settle_generatedMonthNetsOutWithinBudget() {
+        Random rnd = new Random(42);
+        double[] meals = new double[MEMBERS];
+        double[] paid = new double[MEMBERS];
+        double grocery = 0;
+
+        // Daily entries are only used to build the counters, never by the engine
+        for (int m = 0; m < MEMBERS; m++) {
+            for (int d = 0; d < DAYS; d++) {
+                for (int slot = 0; slot < 3; slot++) {
+                    meals[m] += rnd.nextInt(3) * 0.5;
+                }
+            }
+            paid[m] = rnd.nextInt(5000);
+            grocery += paid[m];
+        }
+
+        SettlementEngine.Result result = SettlementEngine.settle(meals, paid, grocery, 0, 30000);
+        assertEquals(MEMBERS, result.balance.length);
+
+        // The budget is about 1000x what the loop needs, and the best of several runs
+        // after a warm-up leaves out JIT and GC pauses, so only a real regression trips it
+        for (int i = 0; i < 200; i++) SettlementEngine.settle(meals, paid, grocery, 0, 30000);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            SettlementEngine.settle(meals, paid, grocery, 0, 30000);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertTrue("settle took " + best + " ns", best < SettlementEngine.BUDGET_NANOS);
+
+        // Everything spent is redistributed, so balances net out to -bills
+        double sum = 0;
+        for (double b : result.balance) sum += b;
+        assertEquals(-30000.0, sum, 1e-3);
+    }
+}
@@ -0,0 +1,161 @@
+package edu.ewubd.smartmessMN;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Mappers are fed the same raw Maps that DataSnapshot.getValue() returns.
+ * The expense mapper is cross-checked and benchmarked against a reflective bean mapper
+ * that does what getValue(ExpenseItem.class) does: look up each field by name and convert it.
+ */
+public class SnapshotMappersTest {
+
+    private static final int EXPENSES = 1000;
+
+    @Test
+    public void expense_readsEveryFieldAndNumberType() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("user", "Rahim");
+        raw.put("item", "Rice");
+        raw.put("date", "2026-10-01");
+        raw.put("amount", 1250L); // Firebase gives whole numbers back as Long
+        raw.put("type", "Grocery");
+
+        ExpenseItem e = SnapshotMappers.expense("-Nabc", raw);
+        assertEquals("-Nabc", e.id);
+        assertEquals("Rahim", e.user);
+        assertEquals("Rice", e.item);
+        assertEquals("2026-10-01", e.date);
+        assertEquals(1250.0, e.amount, 0);
+        assertEquals("Grocery", e.type);
+
+        assertNull(SnapshotMappers.expense("-Nxyz", null));
+    }
+
+    @Test
+    public void mealRows_givesEveryRosterMemberARow() {
+        Map<String, String> roster = new LinkedHashMap<>();
+        roster.put("u1", "A");
+        roster.put("u2", "B");
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("breakfast", 1L);
+        entry.put("lunch", 0.5);
+        Map<String, Object> day = new HashMap<>();
+        day.put("u1", entry);
+
+        List<MealHistoryItem> rows = SnapshotMappers.mealRows(roster, day, MealConfig.DEFAULT);
+        assertEquals(2, rows.size());
+        assertEquals(1.5, rows.get(0).total, 1e-9);
+        assertEquals(0.0, rows.get(0).slots[2], 0);
+        assertEquals("B", rows.get(1).userName);
+        assertEquals(0.0, rows.get(1).total, 0);
+
+        assertEquals(2, SnapshotMappers.mealRows(roster, null, MealConfig.DEFAULT).size());
+    }
+
+    @Test
+    public void handWrittenMapperMatchesReflection() throws Exception {
+        List<Map<String, Object>> raws = generate();
+        List<ExpenseItem> hand = mapHandWritten(raws);
+        List<ExpenseItem> reflect = mapReflective(raws);
+
+        assertEquals(EXPENSES, hand.size());
+        for (int i = 0; i < EXPENSES; i++) {
+            ExpenseItem a = hand.get(i), b = reflect.get(i);
+            assertEquals(b.id, a.id);
+            assertEquals(b.user, a.user);
+            assertEquals(b.item, a.item);
+            assertEquals(b.date, a.date);
+            assertEquals(b.amount, a.amount, 0);
+            assertEquals(b.type, a.type);
+            assertEquals(b.uid, a.uid);
+        }
+    }
+
+    // Timing only: prints both mappers' best run and asserts nothing about the numbers,
+    // so a busy build machine can't fail it. Compare the printed lines across changes.
+    @Test
+    public void benchmarkAgainstReflection() throws Exception {
+        List<Map<String, Object>> raws = generate();
+
+        // Warm up both paths, then take the best of several runs
+        for (int i = 0; i < 50; i++) {
+            mapHandWritten(raws);
+            mapReflective(raws);
+        }
+        long handBest = Long.MAX_VALUE, reflectBest = Long.MAX_VALUE;
+        int mapped = 0;
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            mapped += mapHandWritten(raws).size();
+            handBest = Math.min(handBest, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            mapped += mapReflective(raws).size();
+            reflectBest = Math.min(reflectBest, System.nanoTime() - start);
+        }
+
+        System.out.println("Mapping " + EXPENSES + " expenses: hand-written " + handBest / 1000
+                + " us, reflective " + reflectBest / 1000 + " us");
+        assertEquals(2 * 20 * EXPENSES, mapped); // Keeps the JIT from dropping the work
+    }
+
+    private static List<Map<String, Object>> generate() {
+        Random rnd = new Random(7);
+        List<Map<String, Object>> raws = new ArrayList<>();
+        for (int i = 0; i < EXPENSES; i++) {
+            Map<String, Object> raw = new HashMap<>();
+            raw.put("id", "-N" + i);
+            raw.put("user", "Member " + rnd.nextInt(40));
+            raw.put("item", "Item " + i);
+            raw.put("date", "2026-10-" + (10 + rnd.nextInt(18)));
+            raw.put("amount", rnd.nextBoolean() ? (Object) (long) rnd.nextInt(3000) : (Object) (rnd.nextInt(300000) / 100.0));
+            raw.put("type", rnd.nextBoolean() ? "Grocery" : "Other");
+            raw.put("uid", "uid" + rnd.nextInt(40));
+            raws.add(raw);
+        }
+        return raws;
+    }
+
+    private static List<ExpenseItem> mapHandWritten(List<Map<String, Object>> raws) {
+        List<ExpenseItem> out = new ArrayList<>(raws.size());
+        for (Map<String, Object> raw : raws) {
+            out.add(SnapshotMappers.expense((String) raw.get("id"), raw));
+        }
+        return out;
+    }
+
+    // Same approach as a reflective bean mapper: instantiate, then set fields by name
+    private static List<ExpenseItem> mapReflective(List<Map<String, Object>> raws) throws Exception {
+        List<ExpenseItem> out = new ArrayList<>(raws.size());
+        for (Map<String, Object> raw : raws) {
+            ExpenseItem item = ExpenseItem.class.getDeclaredConstructor().newInstance();
+            for (Map.Entry<String, Object> e : raw.entrySet()) {
+                Field field;
+                try {
+                    field = ExpenseItem.class.getField(e.getKey());
+                } catch (NoSuchFieldException ignored) {
+                    continue; // Unknown properties are skipped
+                }
+                Object value = e.getValue();
+                if (field.getType() == double.class) {
+                    field.setDouble(item, ((Number) value).doubleValue());
+                } else {
+                    field.set(item, value);
+                }
+            }
+            out.add(item);
+        }
+        return out;
+    }
+}